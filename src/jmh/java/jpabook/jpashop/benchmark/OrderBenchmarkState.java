@@ -0,0 +1,100 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크 공통 상태
+ * 내장 H2(메모리)로 애플리케이션 컨텍스트를 띄우고 orders x itemsPerOrder 크기의 데이터를 넣는다.
+ */
+@State(Scope.Benchmark)
+public class OrderBenchmarkState {
+
+    @Param({"1000"})
+    public int orders;
+
+    @Param({"5"})
+    public int itemsPerOrder;
+
+    public ConfigurableApplicationContext context;
+    public TransactionTemplate readOnlyTx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(   //  application.yml 보다 우선하도록 커맨드라인 인자로 넘긴다.(properties()는 기본값이라 yml에 덮어써진다)
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.properties.hibernate.default_batch_fetch_size=100",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.SQL=warn");
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        seed(new TransactionTemplate(transactionManager), context.getBean(EntityManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(TransactionTemplate tx, EntityManager em) {
+        List<Long> bookIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000 + i);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                ids.add(book.getId());
+            }
+            return ids;
+        });
+
+        int chunk = 100;
+        for (int from = 0; from < orders; from += chunk) {
+            int start = from;
+            tx.executeWithoutResult(status -> {
+                for (int n = start; n < Math.min(start + chunk, orders); n++) {
+                    Member member = new Member();
+                    member.setName("member" + n);
+                    member.setAddress(new Address("서울", String.valueOf(n), "111"));
+                    em.persist(member);
+
+                    OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+                    for (int i = 0; i < itemsPerOrder; i++) {
+                        Book book = em.find(Book.class, bookIds.get(i));
+                        orderItems[i] = OrderItem.createOrderITem(book, book.getPrice(), 1);
+                    }
+
+                    Delivery delivery = new Delivery();
+                    delivery.setAddress(member.getAddress());
+                    em.persist(Order.createOrder(member, delivery, orderItems));
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * /api/v6/orders flat row 조립 비교(DB 없이 조립 비용만 측정)
+ * collectorsGroupingBy: 기존 V6 구현(key 용 DTO 생성 + HashMap + DTO 재생성)
+ * assembler: OrderFlatAssembler(정렬된 row 1회 순회)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class OrderFlatAssemblerBenchmark {
+
+    @Param({"1000", "100000"})
+    public int orders;
+
+    @Param({"5"})
+    public int itemsPerOrder;
+
+    private List<OrderFlatDto> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = new ArrayList<>(orders * itemsPerOrder);
+        LocalDateTime now = LocalDateTime.now();
+        Address address = new Address("서울", "1", "111");
+        for (long orderId = 1; orderId <= orders; orderId++) {
+            for (int i = 0; i < itemsPerOrder; i++) {
+                rows.add(new OrderFlatDto(orderId, "member" + orderId, now, OrderStatus.ORDER, address, "BOOK" + i, 10000, 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> collectorsGroupingBy() {   //  메서드 이름이 groupingBy 이면 static import 한 Collectors.groupingBy를 가린다.
+        return rows.stream()
+                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(),
+                                o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
+                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
+                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
+                )).entrySet().stream()
+                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
+                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
+                        e.getKey().getAddress(), e.getValue()))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> assembler() {
+        return OrderFlatAssembler.assemble(rows);
+    }
+}
@@ -0,0 +1,135 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.querycount.QueryCount;
+import jpabook.jpashop.querycount.QueryCountHolder;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryPipeline;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * /api/v1~v6/orders, /api/v1~v4/simple-orders 조회 전략 비교
+ * 엔티티 조회 전략은 API 처럼 트랜잭션 안에서 LAZY 연관관계까지 모두 초기화한 비용을 측정한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class OrderReadBenchmark {
+
+    private OrderRepository orderRepository;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private OrderQueryPipeline orderQueryPipeline;
+
+    @Setup(Level.Trial)
+    public void setUp(OrderBenchmarkState state) {
+        orderRepository = state.context.getBean(OrderRepository.class);
+        orderQueryRepository = state.context.getBean(OrderQueryRepository.class);
+        orderSimpleQueryRepository = state.context.getBean(OrderSimpleQueryRepository.class);
+        orderQueryPipeline = state.context.getBean(OrderQueryPipeline.class);
+    }
+
+    // ===== X to One (simple-orders) =====
+
+    @Benchmark
+    public List<Order> simpleOrdersV2_lazy(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> {
+            List<Order> orders = orderRepository.findAll(new OrderSearch());
+            orders.forEach(o -> {
+                o.getMember().getName();
+                o.getDelivery().getAddress();
+            });
+            return orders;
+        }));
+    }
+
+    @Benchmark
+    public List<Order> simpleOrdersV3_fetchJoin(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> orderRepository.findAllWithMemberDelivery()));
+    }
+
+    @Benchmark
+    public List<SimpleOrderQueryDto> simpleOrdersV4_dto(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> orderSimpleQueryRepository.findOrderDtos()));
+    }
+
+    // ===== X to Many (orders) =====
+
+    @Benchmark
+    public List<Order> ordersV2_lazy(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> initialize(orderRepository.findAll(new OrderSearch()))));
+    }
+
+    @Benchmark
+    public List<Order> ordersV3_idThenFetchJoin(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> initialize(orderRepository.findAllWithItem(0, state.orders))));
+    }
+
+    @Benchmark
+    public List<Order> ordersV3_1_batchFetch(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> initialize(orderRepository.findAllWithMemberDelivery(0, state.orders))));
+    }
+
+    @Benchmark
+    public List<Order> ordersV3_2_keyset(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> initialize(orderRepository.findAllWithMemberDelivery(OrderCursor.first(), state.orders))));
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> ordersV4_dtoNPlusOne(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> orderQueryRepository.findOrderQueryDtos()));
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> ordersV5_dtoInQuery(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> orderQueryRepository.findAllByDto_opmization()));
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> ordersV5_1_pipeline(QueryCounters counters) {
+        return count(counters, () -> orderQueryPipeline.findAll(100));
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> ordersV6_flat(OrderBenchmarkState state, QueryCounters counters) {
+        return count(counters, () -> state.readOnlyTx.execute(status -> OrderFlatAssembler.assemble(orderQueryRepository.findAllByDto_flat())));
+    }
+
+    /**
+     * 조회 1회에 실행된 쿼리 수를 QueryCounters에 더한다.
+     */
+    private static <T> T count(QueryCounters counters, Supplier<T> query) {
+        QueryCount queryCount = new QueryCount();
+        QueryCountHolder.set(queryCount);
+        try {
+            return query.get();
+        } finally {
+            QueryCountHolder.clear();
+            counters.queries += queryCount.getCount();
+            counters.invocations++;
+        }
+    }
+
+    private List<Order> initialize(List<Order> orders) {
+        for (Order order : orders) {
+            order.getMember().getName();
+            order.getDelivery().getAddress();
+            for (OrderItem orderItem : order.getOrderItems()) {
+                orderItem.getItem().getName();
+            }
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 벤치마크 1회 호출당 실행된 쿼리 수
+ * JMH 결과에 queries, invocations 합계가 같이 출력된다.(queries / invocations = 호출당 쿼리 수)
+ * @AuxCounters 클래스의 public 필드/메서드는 모두 카운터로 취급되므로 집계는 OrderReadBenchmark.count()에서 한다.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class QueryCounters {
+
+    public long queries;
+    public long invocations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        queries = 0;
+        invocations = 0;
+    }
+}
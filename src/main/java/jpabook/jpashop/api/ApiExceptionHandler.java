@@ -0,0 +1,30 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.exception.InvalidCursorException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
+import java.io.IOException;
+
+/**
+ * API 요청 값 검증 실패를 400으로 응답한다.
+ * @Validated 컨트롤러의 메서드 파라미터 검증(@RequestParam 범위, 리스트 요소 @Valid)은 ConstraintViolationException 으로 실패하는데
+ * 처리하지 않으면 500이 되므로 @RequestBody 검증 실패(MethodArgumentNotValidException)와 같은 기본 오류 응답으로 바꾼다.
+ * 해석할 수 없는 keyset 페이징 cursor 도 잘못된 요청 값이므로 400으로 응답한다.
+ */
+@RestControllerAdvice(basePackageClasses = ApiExceptionHandler.class)
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public void constraintViolation(ConstraintViolationException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public void invalidCursor(InvalidCursorException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+    }
+}
@@ -0,0 +1,86 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.ItemCatalogUpdate;
+import jpabook.jpashop.service.CatalogImportProgress;
+import jpabook.jpashop.service.CatalogImportService;
+import jpabook.jpashop.service.ItemService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@Validated
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final ItemService itemService;
+    private final CatalogImportService catalogImportService;
+
+    /**
+     * 상품 가격/재고 일괄 변경
+     * 상품을 조회하지 않고 update 문을 JDBC batch로 실행한다.(값이 없는 항목은 변경하지 않음)
+     */
+    @PatchMapping("/api/v1/items")
+    public UpdateCatalogResponse updateCatalog(@RequestBody List<@Valid UpdateCatalogRequest> requests) {
+        List<ItemCatalogUpdate> updates = requests.stream()
+                .map(r -> new ItemCatalogUpdate(r.getItemId(), r.getPrice(), r.getStockQuantity()))
+                .collect(Collectors.toList());
+        return new UpdateCatalogResponse(itemService.updateCatalog(updates));
+    }
+
+    /**
+     * 상품 일괄 등록(CSV)
+     * 요청 본문을 읽는 대로 등록하므로 파일 크기와 상관없이 메모리 사용량이 일정하다.
+     */
+    @PostMapping(value = "/api/v1/items/import", consumes = "text/csv")
+    public CatalogImportProgress.Snapshot importCsv(InputStream body) {
+        return catalogImportService.importCsv(body);
+    }
+
+    /**
+     * 상품 일괄 등록(JSON 배열 또는 NDJSON)
+     */
+    @PostMapping(value = "/api/v1/items/import", consumes = {"application/json", "application/x-ndjson"})
+    public CatalogImportProgress.Snapshot importJson(InputStream body) throws IOException {
+        return catalogImportService.importJson(body);
+    }
+
+    /**
+     * 진행 중인 상품 일괄 등록(importId -> 진행 상황)
+     */
+    @GetMapping("/api/v1/items/import")
+    public Map<String, CatalogImportProgress.Snapshot> importProgress() {
+        return catalogImportService.getRunning();
+    }
+
+    @Data
+    static class UpdateCatalogRequest {
+        @NotNull
+        private Long itemId;
+        @PositiveOrZero
+        private Integer price;
+        @PositiveOrZero
+        private Integer stockQuantity;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class UpdateCatalogResponse {
+        private int updated;
+    }
+}
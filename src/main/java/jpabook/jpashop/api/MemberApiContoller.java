@@ -1,23 +1,48 @@
 package jpabook.jpashop.api;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.querycount.QueryBudget;
+import jpabook.jpashop.repository.member.query.MemberQueryDto;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
+import jpabook.jpashop.service.MemberImportResult;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
+@Validated
 @RequiredArgsConstructor
 public class MemberApiContoller {
 
+    /**
+     * 한 번에 조회할 수 있는 최대 회원 수(limit 범위: 1 ~ MAX_LIMIT, 벗어나면 400)
+     */
+    static final int MAX_LIMIT = 1000;
+
+    /**
+     * 일괄 등록 1번에 받을 최대 회원 수(이름 중복 확인 in 쿼리 1번, 요청 1건의 트랜잭션 크기)
+     */
+    static final int MAX_BULK_SIZE = 5000;
+
     private final MemberService memberService;
+    private final MemberQueryRepository memberQueryRepository;
 
     @PostMapping("/api/v1/members")
     public CreateMemberResponse saveMemberV1(@RequestBody @Valid Member member) {
@@ -34,8 +59,33 @@ public class MemberApiContoller {
         return new CreateMemberResponse(id);
     }
 
+    /**
+     * 회원 일괄 등록
+     * 이미 존재하는 이름은 쿼리 1번으로 한꺼번에 확인해서 건너뛰고 결과에 돌려준다.
+     */
+    @PostMapping("/api/v2/members/bulk")
+    public BulkCreateMemberResponse saveMembersV2(
+            @RequestBody @NotEmpty @Size(max = MAX_BULK_SIZE) List<@Valid CreateMemberRequest> requests) {
+        List<Member> members = requests.stream().map(request -> {
+            Member member = new Member();
+            member.setName(request.name);
+            return member;
+        }).collect(Collectors.toList());
+
+        MemberImportResult result = memberService.joinAll(members);
+        return new BulkCreateMemberResponse(result.getIds(), result.getDuplicateNames());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkCreateMemberResponse {
+        private List<Long> ids;
+        private List<String> duplicateNames;
+    }
+
     @Data
     static class CreateMemberRequest {
+        @NotBlank
         private String name;
     }
 
@@ -54,9 +104,32 @@ public class MemberApiContoller {
             @PathVariable("id") Long id,
             @RequestBody @Valid UpdateMemberRequest request) {
 
-        memberService.update(id, request.getName());
-        Member findMember = memberService.findOne(id);
-        return new UpdateMemberResponse(findMember.getName(), findMember.getId());
+        Member member = memberService.update(id, request.getName());
+        return new UpdateMemberResponse(member.getName(), member.getId());
+    }
+
+    /**
+     * 회원 이름 일괄 변경(회원을 조회하지 않고 update batch)
+     */
+    @PutMapping("/api/v2/members")
+    public BulkUpdateMemberResponse updateMembersV2(@RequestBody List<@Valid BulkUpdateMemberRequest> requests) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        requests.forEach(request -> names.put(request.getId(), request.getName()));
+        return new BulkUpdateMemberResponse(memberService.updateNames(names));
+    }
+
+    @Data
+    static class BulkUpdateMemberRequest {
+        @NotNull
+        private Long id;
+        @NotEmpty
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkUpdateMemberResponse {
+        private int updated;
     }
 
     @Data
@@ -84,6 +157,30 @@ public class MemberApiContoller {
         return new membersResult(collect.size(), collect);
     }
 
+    /**
+     * V3 keyset 페이징 + DTO 직접 조회
+     * 첫 페이지(lastMemberId 없음)에만 전체 회원 수를 같이 준다.(count 쿼리, 짧게 캐시한 근사치)
+     * Query: 1번(첫 페이지는 count 포함 최대 2번)
+     */
+    @QueryBudget(2)
+    @GetMapping("/api/v3/members")
+    public MembersPage membersV3(
+            @RequestParam(value = "lastMemberId", required = false) Long lastMemberId,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(MAX_LIMIT) int limit) {
+        List<MemberQueryDto> members = memberQueryRepository.findMembers(lastMemberId == null ? 0L : lastMemberId, limit);
+        Long count = lastMemberId == null ? memberQueryRepository.countMembers() : null;
+        Long next = members.size() < limit ? null : members.get(members.size() - 1).getMemberId();   //  마지막 페이지면 null
+        return new MembersPage(count, members, next);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class MembersPage {
+        private Long count;
+        private List<MemberQueryDto> data;
+        private Long next;
+    }
+
     @Data
     @AllArgsConstructor
     static class membersResult<T> {
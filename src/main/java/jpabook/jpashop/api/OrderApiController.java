@@ -4,18 +4,40 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchCursor;
 import jpabook.jpashop.repository.order.query.*;
+import jpabook.jpashop.repository.order.search.OrderSearchDto;
+import jpabook.jpashop.repository.order.search.OrderSearchRepository;
+import jpabook.jpashop.querycount.QueryBudget;
+import jpabook.jpashop.service.OptimisticLockRetryExecutor;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.cache.cfg.internal.AbstractDomainDataCachingConfig;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,16 +49,26 @@ import static java.util.stream.Collectors.*;
  *
  */
 @RestController
+@Validated
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    /**
+     * 한 번에 조회할 수 있는 최대 건수(limit 범위: 1 ~ MAX_LIMIT, 벗어나면 400)
+     */
+    static final int MAX_LIMIT = 1000;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryPipeline orderQueryPipeline;
+    private final OrderSearchRepository orderSearchRepository;
+    private final OrderService orderService;
+    private final OptimisticLockRetryExecutor retryExecutor;
 
     /**
      * ordersV1
      * 문제점
-     * 1. orderRepository.findAllByString 하게 되면 Member, orderItem, delivery를 가져오게 되는데 모두 LAZY LOADING으로 설정 되어 있기 때문에
+     * 1. orderRepository.findAll 하게 되면 Member, orderItem, delivery를 가져오게 되는데 모두 LAZY LOADING으로 설정 되어 있기 때문에
      *    위 함수 호출 시점에는 실제 데이터가 아닌 Proxy 객체가 들어가 있게 되므로 에러가 발생한다.
      *   error : [com.fasterxml.jackson.databind.exc.InvalidDefinitionException: No serializer found for class org.hibernate.proxy.pojo.bytebuddy.ByteBuddyInterceptor and no properties discovered to create BeanSerializer (to avoid exception, disable SerializationFeature.FAIL_ON_EMPTY_BEANS) (through reference chain: java.util.ArrayList[0]->jpabook.jpashop.domain.Order["member"]->jpabook.jpashop.domain.Member$HibernateProxy$Y7sAZ8N9["hibernateLazyInitializer"])]
      *
@@ -56,7 +88,7 @@ public class OrderApiController {
      */
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
-        List<Order> all = orderRepository.findAllByString(new OrderSearch());
+        List<Order> all = orderRepository.findAll(new OrderSearch());
         for (Order order : all) {
             order.getMember().getName();        //  LAZY 강제초기화(Member Proxy 초기화)
             order.getDelivery().getAddress();   //  LAZY 강제초기화(Delivery Proxy 초기화)
@@ -80,7 +112,7 @@ public class OrderApiController {
 
     @GetMapping("/api/v2/orders")
     public Result ordersV2() {
-        List<Order> all = orderRepository.findAllByString(new OrderSearch());
+        List<Order> all = orderRepository.findAll(new OrderSearch());
         List<OrderDto> collect = all.stream().map(o -> new OrderDto(o)).collect(toList());
 
         return new Result(collect);
@@ -129,18 +161,22 @@ public class OrderApiController {
 
 
     /**
-     * ordersV2
+     * ordersV3
      * 문제점
      * 1.  컬렉션 페치 조인을 사용하면 페이징이 불가능하다. 하이버네이트는 경고 로그를 남기면서 모든 데이터를 DB에서 읽어오고,
      *     메모리에서 페이징 해버린다(매우 위험하다).
+     *     -> 주문 id를 먼저 페이징해서 조회한 뒤, 그 id에 해당하는 주문만 컬렉션 페치 조인하는 2단계 조회로 해결
      *
      * 참고: 컬렉션 페치 조인은 1개만 사용할 수 있다. 컬렉션 둘 이상에 페치 조인을 사용하면 안된다. 데이터가
      * 부정합하게 조회될 수 있다.
      *
      */
+    @QueryBudget(2)
     @GetMapping("/api/v3/orders")
-    public Result ordersV3() {
-        List<Order> all = orderRepository.findAllWithItem();
+    public Result ordersV3(
+            @RequestParam(value = "offset", defaultValue = "0") @Min(0) int offset,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(MAX_LIMIT) int limit) {
+        List<Order> all = orderRepository.findAllWithItem(offset, limit);
         List<OrderDto> collect = all.stream().map(o -> new OrderDto(o)).collect(toList());
 
         return new Result(collect);
@@ -153,14 +189,77 @@ public class OrderApiController {
      */
     @GetMapping("/api/v3.1/orders")
     public Result ordersV3_1(
-            @RequestParam(value = "offset", defaultValue = "0") int offset,
-            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+            @RequestParam(value = "offset", defaultValue = "0") @Min(0) int offset,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(MAX_LIMIT) int limit) {
         List<Order> all = orderRepository.findAllWithMemberDelivery(offset,limit);
         List<OrderDto> collect = all.stream().map(o -> new OrderDto(o)).collect(toList());
 
         return new Result(collect);
     }
 
+    /**
+     * V3.2 keyset(seek) 페이징
+     * - offset 대신 이전 응답의 next 토큰을 cursor로 넘겨서 다음 페이지를 조회
+     * - 페이지가 깊어져도 첫 페이지와 같은 비용
+     * - 컬렉션 관계는 V3.1과 동일하게 hibernate.default_batch_fetch_size로 최적화
+     */
+    @QueryBudget(3)
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult ordersV3_2(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(MAX_LIMIT) int limit) {
+        List<Order> all = orderQueryService.findOrdersAfter(OrderCursor.decode(cursor), limit);
+        List<OrderDto> collect = all.stream().map(o -> new OrderDto(o)).collect(toList());
+
+        String next = all.size() < limit ? null : OrderCursor.after(all.get(all.size() - 1)).encode();   //  마지막 페이지면 null
+        return new CursorResult(collect, next);
+    }
+
+    /**
+     * 주문 검색(DTO 직접 조회 + keyset 페이징)
+     * 회원 이름은 기본으로 앞부분 일치 검색(memberNameMatch=PREFIX)이라 member.name 인덱스를 사용한다.
+     * Query: 1번
+     */
+    @QueryBudget(1)
+    @GetMapping("/api/v1/orders/search")
+    public CursorResult<List<OrderSearchDto>> searchOrders(
+            @ModelAttribute OrderSearch orderSearch,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(MAX_LIMIT) int limit) {
+        List<OrderSearchDto> result = orderSearchRepository.search(orderSearch, OrderSearchCursor.decode(cursor), limit);
+
+        String next = null;     //  마지막 페이지면 null
+        if (result.size() == limit) {
+            OrderSearchDto last = result.get(result.size() - 1);
+            next = OrderSearchCursor.after(last.getOrderId(), last.getOrderDate()).encode();
+        }
+        return new CursorResult<>(result, next);
+    }
+
+    /**
+     * 주문 검색 전체 건수(/api/v1/orders/search 와 같은 검색 조건)
+     */
+    @QueryBudget(1)
+    @GetMapping("/api/v1/orders/search/count")
+    public CountResult countOrders(@ModelAttribute OrderSearch orderSearch) {
+        return new CountResult(orderSearchRepository.count(orderSearch));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CountResult {
+
+        private long count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+
+        private T data;
+        private String next;
+    }
+
     /**
      * 컬렉션은 별도로 조회
      * Query: 최초초 1번 컬렉션 N 번
@@ -178,22 +277,119 @@ public class OrderApiController {
         return new Result(orderQueryDtos);
     }
 
+    /**
+     * V5.1 대량 조회
+     * V5를 페이지 단위로 나눠서 N 페이지의 컬렉션 조회와 N+1 페이지의 루트 조회를 동시에 실행
+     * Query: 페이지당 루트 1번, 컬렉션 1번
+     */
+    @GetMapping("/api/v5.1/orders")
+    public Result ordersV5_1(@RequestParam(value = "pageSize", defaultValue = "1000") int pageSize) {
+        List<OrderQueryDto> orderQueryDtos = orderQueryPipeline.findAll(pageSize);
+        return new Result(orderQueryDtos);
+    }
+
+    /**
+     * V5.1 단계별(root, items) 누적 실행 시간
+     */
+    @GetMapping("/api/v5.1/orders/stages")
+    public Result ordersV5_1Stages() {
+        return new Result(orderQueryPipeline.getStageLatencies());
+    }
+
+    /**
+     * V6 flat 조회
+     * - 쿼리 1번(주문 id 페이징 쿼리 포함 2번)으로 주문 x 주문상품 row를 조회한 뒤 애플리케이션에서 주문 단위로 조립
+     * - row가 order id 순으로 정렬되어 있으므로 OrderFlatAssembler로 한번만 순회하면서 조립(정렬 순서 유지)
+     * - 페이징은 주문 기준
+     */
+    @QueryBudget(2)
     @GetMapping("/api/v6/orders")
-    public Result ordersV6() {
-        List<OrderFlatDto> flatDtos = orderQueryRepository.findAllByDto_flat();
-        List<OrderQueryDto> collect = flatDtos.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(),
-                                o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
-                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
-                )).entrySet().stream()
-                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
-                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
-                        e.getKey().getAddress(), e.getValue()))
-                .collect(toList());
+    public Result ordersV6(
+            @RequestParam(value = "offset", defaultValue = "0") @Min(0) int offset,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(MAX_LIMIT) int limit) {
+        List<OrderFlatDto> flatDtos = orderQueryRepository.findAllByDto_flat(offset, limit);
+        List<OrderQueryDto> collect = OrderFlatAssembler.assemble(flatDtos);
         return new Result(collect);
     }
 
+    /**
+     * 전체 주문 내보내기(NDJSON)
+     * V6처럼 flat 하게 조회하지만 List로 모으지 않고 스트리밍으로 읽으면서 주문 1건씩 바로 응답에 쓴다.
+     * 주문 수가 많아도 힙 사용량이 늘어나지 않는다.
+     */
+    @GetMapping("/api/v6/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrdersV6() {
+        StreamingResponseBody body = out -> orderQueryService.exportOrders(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 장바구니 주문
+     * 여러 상품을 주문 1건(배송 1건)으로 저장
+     */
+    @PostMapping("/api/v1/orders")
+    public CreateOrderResponse saveOrderV1(@RequestBody @Valid CreateCartOrderRequest request) {
+        List<OrderLine> lines = request.getLines().stream()
+                .map(l -> new OrderLine(l.getItemId(), l.getCount()))
+                .collect(toList());
+        Long id = retryExecutor.execute(() -> orderService.order(request.getMemberId(), lines));
+        return new CreateOrderResponse(id);
+    }
+
+    @Data
+    static class CreateCartOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        private List<@Valid OrderLineRequest> lines;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long id;
+    }
+
+    /**
+     * 대량 주문
+     * 요청의 주문들을 트랜잭션 1개에서 batch insert로 저장
+     */
+    @PostMapping("/api/v1/orders/bulk")
+    public Result saveOrdersV1(@RequestBody @NotEmpty List<@Valid CreateOrderRequest> request) {
+        List<OrderCommand> commands = request.stream()
+                .map(r -> new OrderCommand(r.getMemberId(), r.getItemId(), r.getCount()))
+                .collect(toList());
+        return new Result(retryExecutor.execute(() -> orderService.orders(commands)));
+    }
+
+    /**
+     * 주문/취소 낙관적 락 충돌 통계
+     */
+    @GetMapping("/api/v1/orders/retry-stats")
+    public OptimisticLockRetryExecutor.RetryStats retryStats() {
+        return retryExecutor.getStats();
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
     /**
      * OSIV 테스트(OSIV = false 일때, LAZY 로딩으로 인한 [could not initialize proxy [jpabook.jpashop.domain.Member#1] - no Session] 에러 발생)
      */
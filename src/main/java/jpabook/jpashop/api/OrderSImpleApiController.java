@@ -3,14 +3,17 @@ package jpabook.jpashop.api;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.querycount.QueryBudget;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryCache;
 import jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -26,11 +29,12 @@ public class OrderSImpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final SimpleOrderQueryCache simpleOrderQueryCache;
 
     /**
      * ordersV1
      * 문제점
-     * 1. orderRepository.findAllByString 하게 되면 Member, orderItem, delivery를 가져오게 되는데 모두 LAZY LOADING으로 설정 되어 있기 때문에
+     * 1. orderRepository.findAll 하게 되면 Member, orderItem, delivery를 가져오게 되는데 모두 LAZY LOADING으로 설정 되어 있기 때문에
      *    위 함수 호출 시점에는 실제 데이터가 아닌 Proxy 객체가 들어가 있게 되므로 에러가 발생한다.
      *   error : [com.fasterxml.jackson.databind.exc.InvalidDefinitionException: No serializer found for class org.hibernate.proxy.pojo.bytebuddy.ByteBuddyInterceptor and no properties discovered to create BeanSerializer (to avoid exception, disable SerializationFeature.FAIL_ON_EMPTY_BEANS) (through reference chain: java.util.ArrayList[0]->jpabook.jpashop.domain.Order["member"]->jpabook.jpashop.domain.Member$HibernateProxy$Y7sAZ8N9["hibernateLazyInitializer"])]
      *
@@ -50,7 +54,7 @@ public class OrderSImpleApiController {
      */
     @GetMapping("/api/v1/simple-orders")
     public List<Order> ordersV1() {
-        List<Order> all = orderRepository.findAllByString(new OrderSearch());
+        List<Order> all = orderRepository.findAll(new OrderSearch());
 
         for (Order order : all) {
             order.getMember().getName();        //  LAZY 초기화(Member Proxy 초기화)
@@ -74,7 +78,7 @@ public class OrderSImpleApiController {
 
     @GetMapping("/api/v2/simple-orders")
     public Result ordersV2() {
-        List<Order> orders = orderRepository.findAllByString(new OrderSearch());
+        List<Order> orders = orderRepository.findAll(new OrderSearch());
         List<SimpleOrderDto> collect = orders.stream().map(m -> new SimpleOrderDto(m)).collect(Collectors.toList());
 
         return new Result(collect);
@@ -103,6 +107,7 @@ public class OrderSImpleApiController {
         private T data;
     }
 
+    @QueryBudget(1)
     @GetMapping("/api/v3/simple-orders")
     public Result ordersV3() {
         List<Order> orders = orderRepository.findAllWithMemberDelivery();
@@ -111,9 +116,16 @@ public class OrderSImpleApiController {
         return new Result(collect);
     }
 
+    /**
+     * V4 DTO 직접 조회 + 페이지 캐시
+     * 같은 페이지는 캐시에서 응답하고, Order/Member/Delivery가 변경되면 캐시를 비운다.(SimpleOrderQueryCache)
+     */
+    @QueryBudget(1)
     @GetMapping("/api/v4/simple-orders")
-    public Result ordersV4() {
-        List<SimpleOrderQueryDto> collect = orderSimpleQueryRepository.findOrderDtos();
+    public Result ordersV4(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<SimpleOrderQueryDto> collect = simpleOrderQueryCache.findOrderDtos(offset, limit);
         return new Result(collect);
     }
 
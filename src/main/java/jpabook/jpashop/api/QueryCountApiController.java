@@ -0,0 +1,31 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.querycount.QueryCountRegistry;
+import jpabook.jpashop.querycount.QueryCountRegistry.EndpointStatsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 엔드포인트별 쿼리 수 통계 조회
+ * 요청 1건당 평균/최대 쿼리 수, JDBC 실행 시간, 반복 실행된 SQL(N+1 의심)을 확인할 수 있다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class QueryCountApiController {
+
+    private final QueryCountRegistry queryCountRegistry;
+
+    @GetMapping("/api/query-counts")
+    public Map<String, EndpointStatsDto> queryCounts() {
+        return queryCountRegistry.getStats();
+    }
+
+    @DeleteMapping("/api/query-counts")
+    public void resetQueryCounts() {
+        queryCountRegistry.reset();
+    }
+}
@@ -8,6 +8,7 @@ import lombok.Setter;
 public class BookForm {
 
     private Long id;
+    private Long version;   //  수정 폼을 연 시점의 버전(그 사이 다른 곳에서 수정했으면 저장 실패)
 
     private String name;
     private int price;
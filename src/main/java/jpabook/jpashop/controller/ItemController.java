@@ -3,6 +3,7 @@ package jpabook.jpashop.controller;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.ItemUpdateCommand;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -51,6 +52,7 @@ public class ItemController {
 
         BookForm form = new BookForm();
         form.setId(item.getId());
+        form.setVersion(item.getVersion());
         form.setName(item.getName());
         form.setPrice(item.getPrice());
         form.setStockQuantity(item.getStockQuantity());
@@ -64,15 +66,16 @@ public class ItemController {
     @PostMapping("items/{itemId}/edit")
     public String updateItem(@PathVariable("itemId") Long itemId, @ModelAttribute("form") BookForm form) {
 
-        Book book = new Book();
-        book.setId(form.getId());
-        book.setName(form.getName());
-        book.setPrice(form.getPrice());
-        book.setStockQuantity(form.getStockQuantity());
-        book.setAuthor(form.getAuthor());
-        book.setIsbn(form.getIsbn());
+        ItemUpdateCommand command = new ItemUpdateCommand();
+        command.setId(itemId);
+        command.setVersion(form.getVersion());
+        command.setName(form.getName());
+        command.setPrice(form.getPrice());
+        command.setStockQuantity(form.getStockQuantity());
+        command.setAuthor(form.getAuthor());
+        command.setIsbn(form.getIsbn());
 
-        itemService.saveItem(book);
+        itemService.updateItem(command);
         return "redirect:/items";
     }
 }
\ No newline at end of file
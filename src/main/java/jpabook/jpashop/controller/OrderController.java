@@ -1,11 +1,14 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.querycount.QueryBudget;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchCursor;
+import jpabook.jpashop.repository.order.search.OrderListDto;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OptimisticLockRetryExecutor;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -18,9 +21,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int MAX_LIMIT = 100;   //  한 화면에 보여줄 최대 주문 수
+
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OptimisticLockRetryExecutor retryExecutor;
 
     @GetMapping("/order")
     public String createForm(Model model) {
@@ -38,21 +44,36 @@ public class OrderController {
     public String order(@RequestParam("memberId") Long memberId,
                         @RequestParam("itemId") Long itemId,
                         @RequestParam("count") int count) {
-        orderService.order(memberId, itemId, count);
+        retryExecutor.execute(() -> orderService.order(memberId, itemId, count));
         return "redirect:/orders";
     }
 
+    /**
+     * 주문 목록(keyset 페이징)
+     * 화면에 표시할 컬럼만 조회하므로 페이지 크기와 상관없이 Query: 1번
+     */
+    @QueryBudget(1)
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
-        List<Order> orders = orderService.findOrders(orderSearch);
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch,
+                            @RequestParam(value = "cursor", required = false) String cursor,
+                            @RequestParam(value = "limit", defaultValue = "20") int limit,
+                            Model model) {
+        limit = Math.min(Math.max(limit, 1), MAX_LIMIT);    //  범위를 벗어난 값은 1 ~ MAX_LIMIT 로 맞춘다.
+        List<OrderListDto> orders = orderService.findOrderList(orderSearch, OrderSearchCursor.decode(cursor), limit);
         model.addAttribute("orders", orders);
+        model.addAttribute("limit", limit);
+
+        if (orders.size() == limit) {   //  마지막 페이지가 아니면 다음 페이지 cursor
+            OrderListDto last = orders.get(orders.size() - 1);
+            model.addAttribute("next", OrderSearchCursor.after(last.getOrderId(), last.getOrderDate()).encode());
+        }
 
         return "order/orderList";
     }
 
     @PostMapping("orders/{orderId}/cancel")
     public String cancelOrder(@PathVariable("orderId") Long orderId) {
-        orderService.cancelOrder(orderId);
+        retryExecutor.execute(() -> orderService.cancelOrder(orderId));
 
         return "redirect:/orders";
     }
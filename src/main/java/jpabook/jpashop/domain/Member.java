@@ -1,8 +1,14 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.repository.order.simplequery.SimpleOrderCacheInvalidator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -10,12 +16,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SimpleOrderCacheInvalidator.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")   //  region 설정: application.conf
+@Table(uniqueConstraints = @UniqueConstraint(name = Member.NAME_UNIQUE_CONSTRAINT, columnNames = "name"))   //  중복 가입 방지 + 회원 이름 검색 인덱스
 @Getter
 @Setter
 public class Member {
 
+    public static final String NAME_UNIQUE_CONSTRAINT = "uk_member_name";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private  Long id;
 
@@ -4,10 +4,14 @@ import jpabook.jpashop.domain.Delivery;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.simplequery.SimpleOrderCacheInvalidator;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -15,14 +19,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "oders")
+@EntityListeners(SimpleOrderCacheInvalidator.class)
+@Table(name = "oders", indexes = {
+        @Index(name = "idx_oders_status_order_date", columnList = "status, order_date, order_id"),   //  상태 + 기간 검색
+        @Index(name = "idx_oders_order_date", columnList = "order_date, order_id"),    //  최신 주문 순 정렬 + keyset 페이징
+        @Index(name = "idx_oders_member_id", columnList = "member_id"),
+        @Index(name = "idx_oders_total_price", columnList = "total_price, order_id")    //  총 주문금액 검색
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "order_seq")
+    @GenericGenerator(name = "order_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -37,11 +49,24 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
+    @Column(name = "order_date")    //  인덱스(columnList)에서 컬럼명으로 참조
     private LocalDateTime orderDate;    //  주문시간
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status; //  주문상태 [ORDER, CANCEL]
 
+    /**
+     * 총 주문금액(주문상품 금액 합계를 저장해 둔 값)
+     * 목록 조회, 금액 검색에서 orderItems 컬렉션을 로딩하지 않도록 주문상품을 추가할 때 같이 계산한다.
+     * 컬럼 추가 전에 생성된 주문은 null 이다.(OrderTotalPriceBackfillJob 으로 채운다)
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "total_price")
+    private Integer totalPrice = 0;
+
+    @Version
+    private Long version;   //  낙관적 락(동시에 주문 상태를 변경하면 나중에 커밋하는 쪽이 실패)
+
     // 연관관계 메서드
     public void setMember(Member member) {
         this.member = member;
@@ -51,6 +76,9 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);
+        if (totalPrice != null) {
+            totalPrice += orderItem.getTotalPrice();
+        }
     }
 
     public void setDelivery(Delivery delivery) {
@@ -74,16 +102,27 @@ public class Order {
     // 비즈니스 로직
     /**
      * 주문 취소
+     * 총 주문금액은 주문 당시 금액 그대로 둔다.(주문상품이 빠지는 것이 아니라 상태만 바뀜)
      */
     public void cancel() {
+        markCanceled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 주문 상태만 취소로 변경(재고 원복은 StockReservationService에서 DB로 직접 처리)
+     */
+    public void markCanceled() {
+        if(status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문입니다.");
+        }
         if(delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     // 조회 로직
@@ -91,8 +130,12 @@ public class Order {
     /**
      *
      * 전체 주문 가격 조회
+     * 저장된 총 주문금액을 사용하고, 아직 채워지지 않은 주문만 주문상품을 로딩해서 계산한다.
      */
     public int getTotalPrice() {
+        if (totalPrice != null) {
+            return totalPrice;
+        }
         return orderItems.stream().mapToInt(OrderItem::getTotalPrice).sum();
 //        int totalPrice = 0;
 //        for (OrderItem orderItem : orderItems) {
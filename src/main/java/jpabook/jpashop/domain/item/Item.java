@@ -1,15 +1,25 @@
 package jpabook.jpashop.domain.item;
 
 import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.PooledSequenceGenerator;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")   //  region 설정: application.conf
+@DynamicUpdate  //  변경된 컬럼만 update(가격만 바꾸면 price, version만)
+@Table(indexes = @Index(name = "idx_item_name", columnList = "name"))   //  상품 이름 앞부분 일치 검색
 @Getter
 @Setter
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
@@ -17,7 +27,9 @@ import java.util.List;
 public abstract class Item {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "item_seq")
+    @GenericGenerator(name = "item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "item_seq"))
     @Column(name = "item_id")
     private Long id;
 
@@ -27,6 +39,9 @@ public abstract class Item {
 
     private int stockQuantity;
 
+    @Version
+    private Long version;   //  낙관적 락(엔티티로 수정할 때 다른 트랜잭션의 변경을 덮어쓰지 않도록)
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<Category>();
 
@@ -0,0 +1,63 @@
+package jpabook.jpashop.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.querycount.QueryCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔드포인트별 하이버네이트/JDBC 메트릭(/actuator/metrics)
+ * 요청 1건 동안 QueryCount에 모인 값을 endpoint 태그(매핑 패턴)를 붙여 기록한다.
+ * 요청 건당 쿼리 수, JDBC 시간, 가장 느린 쿼리 시간은 p50/p99 를 같이 계산한다.
+ * SessionFactory 전체 누적 통계(hibernate.*)는 스프링 부트가 자동으로 등록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EndpointMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(String endpoint, QueryCount queryCount) {
+        DistributionSummary.builder("jpashop.request.queries")
+                .description("요청 1건당 실행된 SQL 수")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(queryCount.getCount());
+        Timer.builder("jpashop.request.jdbc")
+                .description("요청 1건당 JDBC 실행 시간 합계")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(queryCount.getTotalNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("jpashop.request.hibernate.query.max")
+                .description("요청 1건 안에서 가장 오래 걸린 JPQL 실행 시간")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(queryCount.getQueryMaxMillis(), TimeUnit.MILLISECONDS);
+
+        increment("jpashop.request.hibernate.entity.loads", endpoint, queryCount.getEntityLoads());
+        increment("jpashop.request.hibernate.entity.fetches", endpoint, queryCount.getEntityFetches());
+        increment("jpashop.request.hibernate.collection.fetches", endpoint, queryCount.getCollectionFetches());
+        increment("jpashop.request.hibernate.cache.hits", endpoint, queryCount.getSecondLevelCacheHits());
+        increment("jpashop.request.hibernate.cache.misses", endpoint, queryCount.getSecondLevelCacheMisses());
+        increment("jpashop.request.hibernate.flushes", endpoint, queryCount.getFlushes());
+    }
+
+    private void increment(String name, String endpoint, int amount) {
+        Counter counter = Counter.builder(name)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        if (amount > 0) {
+            counter.increment(amount);
+        }
+    }
+}
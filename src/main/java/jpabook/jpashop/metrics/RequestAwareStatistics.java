@@ -0,0 +1,107 @@
+package jpabook.jpashop.metrics;
+
+import jpabook.jpashop.querycount.QueryCount;
+import jpabook.jpashop.querycount.QueryCountHolder;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.model.domain.NavigableRole;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * 하이버네이트 Statistics는 SessionFactory 전체 누적값이라 어느 API에서 발생했는지 알 수 없다.
+ * 기존 누적은 그대로 하고, 요청 스레드에 바인딩된 QueryCount에도 같이 기록해서 엔드포인트별로 집계한다.(EndpointMetrics)
+ * hibernate.stats.factory 로 등록한다.(RequestStatisticsFactory)
+ */
+public class RequestAwareStatistics extends StatisticsImpl {
+
+    public RequestAwareStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.recordEntityLoad();
+        }
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.recordEntityFetch();
+        }
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        super.fetchCollection(role);
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.recordCollectionFetch();
+        }
+    }
+
+    @Override
+    public void entityCacheHit(NavigableRole entityName, String regionName) {
+        super.entityCacheHit(entityName, regionName);
+        recordSecondLevelCache(true);
+    }
+
+    @Override
+    public void entityCacheMiss(NavigableRole entityName, String regionName) {
+        super.entityCacheMiss(entityName, regionName);
+        recordSecondLevelCache(false);
+    }
+
+    @Override
+    public void collectionCacheHit(NavigableRole collectionRole, String regionName) {
+        super.collectionCacheHit(collectionRole, regionName);
+        recordSecondLevelCache(true);
+    }
+
+    @Override
+    public void collectionCacheMiss(NavigableRole collectionRole, String regionName) {
+        super.collectionCacheMiss(collectionRole, regionName);
+        recordSecondLevelCache(false);
+    }
+
+    @Override
+    public void queryCacheHit(String hql, String regionName) {
+        super.queryCacheHit(hql, regionName);
+        recordSecondLevelCache(true);
+    }
+
+    @Override
+    public void queryCacheMiss(String hql, String regionName) {
+        super.queryCacheMiss(hql, regionName);
+        recordSecondLevelCache(false);
+    }
+
+    @Override
+    public void flush() {
+        super.flush();
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.recordFlush();
+        }
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.recordQueryExecution(time);
+        }
+    }
+
+    private void recordSecondLevelCache(boolean hit) {
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.recordSecondLevelCache(hit);
+        }
+    }
+}
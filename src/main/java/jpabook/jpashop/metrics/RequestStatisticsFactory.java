@@ -0,0 +1,16 @@
+package jpabook.jpashop.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * hibernate.stats.factory 설정으로 하이버네이트가 직접 생성한다.(스프링 빈 아님)
+ */
+public class RequestStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new RequestAwareStatistics(sessionFactory);
+    }
+}
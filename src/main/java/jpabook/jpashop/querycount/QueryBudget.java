@@ -0,0 +1,17 @@
+package jpabook.jpashop.querycount;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드가 요청 1건에 실행할 수 있는 최대 쿼리 수
+ * 초과하면 경고 로그를 남기고, jpashop.query-count.fail-on-budget-exceeded = true 이면 예외가 발생한다.(테스트용)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
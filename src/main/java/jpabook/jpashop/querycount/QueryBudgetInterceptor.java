@@ -0,0 +1,24 @@
+package jpabook.jpashop.querycount;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 핸들러 메서드의 @QueryBudget 값을 요청 속성에 담아서 QueryCountFilter에 넘긴다.
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                request.setAttribute(QueryCountFilter.BUDGET_ATTRIBUTE, budget.value());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package jpabook.jpashop.querycount;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 요청 1건 동안 실행된 쿼리 집계
+ * ReadOnlyQueryExecutor 작업 스레드에서도 같은 객체에 기록하므로 thread-safe 하게 만든다.
+ */
+public class QueryCount {
+
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final Map<String, AtomicInteger> fingerprints = new ConcurrentHashMap<>();
+
+    //  하이버네이트 통계(RequestAwareStatistics)
+    private final AtomicInteger entityLoads = new AtomicInteger();
+    private final AtomicInteger entityFetches = new AtomicInteger();     //  지연 로딩 등으로 추가 조회한 엔티티
+    private final AtomicInteger collectionFetches = new AtomicInteger();
+    private final AtomicInteger secondLevelCacheHits = new AtomicInteger();
+    private final AtomicInteger secondLevelCacheMisses = new AtomicInteger();
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final LongAccumulator queryMaxMillis = new LongAccumulator(Math::max, 0L);
+
+    public void record(String sql, long elapsedNanos) {
+        count.incrementAndGet();
+        totalNanos.addAndGet(elapsedNanos);
+        fingerprints.computeIfAbsent(fingerprint(sql), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void recordEntityLoad() {
+        entityLoads.incrementAndGet();
+    }
+
+    public void recordEntityFetch() {
+        entityFetches.incrementAndGet();
+    }
+
+    public void recordCollectionFetch() {
+        collectionFetches.incrementAndGet();
+    }
+
+    public void recordSecondLevelCache(boolean hit) {
+        (hit ? secondLevelCacheHits : secondLevelCacheMisses).incrementAndGet();
+    }
+
+    public void recordFlush() {
+        flushes.incrementAndGet();
+    }
+
+    public void recordQueryExecution(long millis) {
+        queryMaxMillis.accumulate(millis);
+    }
+
+    public int getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * 같은 SQL이 가장 많이 반복된 횟수(N+1 이면 N에 가까워진다)
+     */
+    public int getMaxRepeat() {
+        return fingerprints.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+    }
+
+    public Map<String, AtomicInteger> getFingerprints() {
+        return fingerprints;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads.get();
+    }
+
+    public int getEntityFetches() {
+        return entityFetches.get();
+    }
+
+    public int getCollectionFetches() {
+        return collectionFetches.get();
+    }
+
+    public int getSecondLevelCacheHits() {
+        return secondLevelCacheHits.get();
+    }
+
+    public int getSecondLevelCacheMisses() {
+        return secondLevelCacheMisses.get();
+    }
+
+    public int getFlushes() {
+        return flushes.get();
+    }
+
+    /**
+     * 가장 오래 걸린 JPQL/Criteria 쿼리 실행 시간
+     */
+    public long getQueryMaxMillis() {
+        return queryMaxMillis.get();
+    }
+
+    /**
+     * 파라미터는 ? 로 바인딩 되므로 공백만 정리하면 같은 모양의 SQL은 같은 fingerprint가 된다.
+     */
+    static String fingerprint(String sql) {
+        return sql == null ? "" : sql.trim().replaceAll("\\s+", " ");
+    }
+}
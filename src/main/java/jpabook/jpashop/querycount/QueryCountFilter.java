@@ -0,0 +1,80 @@
+package jpabook.jpashop.querycount;
+
+import jpabook.jpashop.metrics.EndpointMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청 단위 쿼리 수 집계
+ * 요청 시작 시 QueryCount를 스레드에 바인딩하고, 요청이 끝나면 엔드포인트별 통계에 기록한 뒤 쿼리 예산(@QueryBudget)을 검사한다.
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String BUDGET_ATTRIBUTE = QueryCountFilter.class.getName() + ".budget";
+    static final String UNMAPPED_ENDPOINT = "UNMAPPED";
+
+    private final QueryCountRegistry queryCountRegistry;
+    private final EndpointMetrics endpointMetrics;
+    private final int repeatWarnThreshold;
+    private final boolean failOnBudgetExceeded;
+
+    public QueryCountFilter(QueryCountRegistry queryCountRegistry, EndpointMetrics endpointMetrics,
+                            @Value("${jpashop.query-count.repeat-warn-threshold:3}") int repeatWarnThreshold,
+                            @Value("${jpashop.query-count.fail-on-budget-exceeded:false}") boolean failOnBudgetExceeded) {
+        this.queryCountRegistry = queryCountRegistry;
+        this.endpointMetrics = endpointMetrics;
+        this.repeatWarnThreshold = repeatWarnThreshold;
+        this.failOnBudgetExceeded = failOnBudgetExceeded;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount queryCount = new QueryCount();
+        QueryCountHolder.set(queryCount);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCountHolder.clear();
+        }
+
+        String endpoint = endpoint(request);
+        queryCountRegistry.record(endpoint, queryCount);
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) != null) {    //  매핑 안된 URI(404)는 태그 수가 늘어나지 않도록 제외
+            endpointMetrics.record(endpoint, queryCount);
+        }
+
+        if (queryCount.getMaxRepeat() >= repeatWarnThreshold) {
+            log.warn("N+1 의심: {} 같은 쿼리가 {}번 반복 실행됨 (전체 {}번)", endpoint, queryCount.getMaxRepeat(), queryCount.getCount());
+        }
+
+        Integer budget = (Integer) request.getAttribute(BUDGET_ATTRIBUTE);
+        if (budget != null && queryCount.getCount() > budget) {
+            String message = endpoint + " 쿼리 예산 초과: budget = " + budget + ", actual = " + queryCount.getCount();
+            if (failOnBudgetExceeded) {
+                throw new QueryBudgetExceededException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    /**
+     * 경로 변수가 치환되기 전의 매핑 패턴 기준으로 묶는다.(/api/v2/members/{id})
+     * 매핑 안된 요청(404)은 URI마다 통계가 계속 쌓이지 않도록 UNMAPPED 하나로 묶는다.
+     */
+    private String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? request.getMethod() + " " + pattern : UNMAPPED_ENDPOINT;
+    }
+}
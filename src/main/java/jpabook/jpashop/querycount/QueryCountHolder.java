@@ -0,0 +1,21 @@
+package jpabook.jpashop.querycount;
+
+/**
+ * 현재 스레드(요청)의 QueryCount 보관
+ */
+public abstract class QueryCountHolder {
+
+    private static final ThreadLocal<QueryCount> HOLDER = new ThreadLocal<>();
+
+    public static QueryCount get() {
+        return HOLDER.get();
+    }
+
+    public static void set(QueryCount queryCount) {
+        HOLDER.set(queryCount);
+    }
+
+    public static void clear() {
+        HOLDER.remove();
+    }
+}
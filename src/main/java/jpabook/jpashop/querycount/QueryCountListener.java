@@ -0,0 +1,24 @@
+package jpabook.jpashop.querycount;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너
+ * p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동으로 등록한다.
+ * 요청 밖(InitDb, 스케줄 작업 등)에서 실행된 쿼리는 집계하지 않는다.
+ */
+@Component
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            queryCount.record(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.querycount;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 엔드포인트별 쿼리 수 누적 통계
+ */
+@Component
+public class QueryCountRegistry {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, QueryCount queryCount) {
+        endpoints.computeIfAbsent(endpoint, k -> new EndpointStats()).record(queryCount);
+    }
+
+    public Map<String, EndpointStatsDto> getStats() {
+        Map<String, EndpointStatsDto> result = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> result.put(endpoint, stats.toDto()));
+        return result;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static class EndpointStats {
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong queries = new AtomicLong();
+        private final AtomicLong jdbcNanos = new AtomicLong();
+        private final LongAccumulator maxQueries = new LongAccumulator(Math::max, 0L);
+        private final Map<String, LongAccumulator> repeated = new ConcurrentHashMap<>();  //  fingerprint -> 요청 1건 내 최대 반복 횟수
+
+        void record(QueryCount queryCount) {
+            requests.incrementAndGet();
+            queries.addAndGet(queryCount.getCount());
+            jdbcNanos.addAndGet(queryCount.getTotalNanos());
+            maxQueries.accumulate(queryCount.getCount());
+            queryCount.getFingerprints().forEach((sql, count) -> {
+                if (count.get() > 1) {
+                    repeated.computeIfAbsent(sql, k -> new LongAccumulator(Math::max, 0L)).accumulate(count.get());
+                }
+            });
+        }
+
+        EndpointStatsDto toDto() {
+            long requests = this.requests.get();
+            Map<String, Long> repeated = new TreeMap<>();
+            this.repeated.forEach((sql, max) -> repeated.put(sql, max.get()));
+            return new EndpointStatsDto(requests,
+                    requests == 0 ? 0 : (double) queries.get() / requests,
+                    maxQueries.get(),
+                    requests == 0 ? 0 : jdbcNanos.get() / 1_000_000.0 / requests,
+                    repeated);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class EndpointStatsDto {
+
+        private long requests;
+        private double avgQueries;
+        private long maxQueries;
+        private double avgJdbcMs;
+        private Map<String, Long> repeatedStatements;   //  요청 1건 안에서 반복 실행된 SQL(N+1 의심)
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.querycount;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * API 응답 헤더에 쿼리 수와 JDBC 실행 시간을 담는다.
+ * 응답 바디를 쓰기 직전(컨트롤러 실행이 끝난 뒤)에 호출되므로 헤더를 추가할 수 있는 마지막 시점이다.
+ */
+@RestControllerAdvice
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryCount queryCount = QueryCountHolder.get();
+        if (queryCount != null) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(queryCount.getCount()));
+            response.getHeaders().set(QUERY_TIME_HEADER, String.format("%.3f", queryCount.getTotalNanos() / 1_000_000.0));
+        }
+        return body;
+    }
+}
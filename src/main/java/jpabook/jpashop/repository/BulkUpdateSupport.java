@@ -0,0 +1,105 @@
+package jpabook.jpashop.repository;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 영속성 컨텍스트를 거치지 않는 update 공통 처리(MemberRepository, ItemRepository)
+ * - update 문을 batchSize 개씩 묶어서 JDBC batch로 실행한다.
+ * - 실행 전에 flush 하고, 실행 후에 대상 엔티티를 2차 캐시에서 제거하고(커밋 후 한번 더) 영속성 컨텍스트에 있으면 DB 값으로 다시 읽는다.
+ */
+final class BulkUpdateSupport {
+
+    private BulkUpdateSupport() {
+    }
+
+    @FunctionalInterface
+    interface ParameterBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    /**
+     * @param idOf 행에서 변경 대상 엔티티 id를 꺼내는 함수(캐시 제거, 다시 읽기 대상)
+     * @return 변경된 행 수
+     */
+    static <T> int executeBatch(EntityManager em, Class<?> entityClass, String sql, Collection<T> rows, int batchSize,
+                                Function<T, ? extends Serializable> idOf, ParameterBinder<T> binder) {
+        em.flush();
+        int[] updated = {0};
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (T row : rows) {
+                    binder.bind(ps, row);
+                    ps.addBatch();
+                    if (++pending == batchSize) {
+                        updated[0] += updatedRows(ps.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    updated[0] += updatedRows(ps.executeBatch());
+                }
+            }
+        });
+
+        List<Serializable> ids = rows.stream().map(idOf).collect(Collectors.toList());
+        evictFromCache(em, entityClass, ids);
+        refreshIfManaged(em, entityClass, ids);
+        return updated[0];
+    }
+
+    /**
+     * 드라이버가 행 수를 알려주지 않는 경우(SUCCESS_NO_INFO)는 1건으로 센다.
+     */
+    private static int updatedRows(int[] results) {
+        int rows = 0;
+        for (int result : results) {
+            rows += result == Statement.SUCCESS_NO_INFO ? 1 : Math.max(result, 0);
+        }
+        return rows;
+    }
+
+    /**
+     * 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시에 올릴 수 있으므로 커밋 후에 한번 더 제거한다.
+     */
+    static void evictFromCache(EntityManager em, Class<?> entityClass, Collection<? extends Serializable> ids) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        List<Serializable> evictIds = new ArrayList<>(ids);
+        evictIds.forEach(id -> cache.evict(entityClass, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictIds.forEach(id -> cache.evict(entityClass, id));
+                }
+            });
+        }
+    }
+
+    static void refreshIfManaged(EntityManager em, Class<?> entityClass, Collection<? extends Serializable> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+        for (Serializable id : ids) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.refresh(managed);
+            }
+        }
+    }
+}
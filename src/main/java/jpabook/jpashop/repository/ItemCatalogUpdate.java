@@ -0,0 +1,18 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 상품 가격/재고 일괄 변경 1건(null 인 항목은 변경하지 않음)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemCatalogUpdate {
+
+    private Long itemId;
+    private Integer price;
+    private Integer stockQuantity;
+}
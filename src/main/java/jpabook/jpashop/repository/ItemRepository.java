@@ -2,16 +2,23 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    private static final int CATALOG_BATCH_SIZE = 100;
+
     //@PersistenceContext
     private final EntityManager em;
 
@@ -27,8 +34,77 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * 쿼리 캐시 사용(결과 id 목록만 캐시하고 엔티티는 2차 캐시에서 가져온다)
+     * item 테이블에 insert/delete가 일어나면 자동으로 무효화 된다.
+     */
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .getResultList();
+    }
+
+    /**
+     * 재고 차감(원자적 조건부 update)
+     * 엔티티로 읽고 -> 빼고 -> 쓰면(Item.removeStock) 동시에 주문이 들어왔을 때 서로의 변경을 덮어써서 초과 판매가 된다.
+     * "남은 재고가 충분할 때만 차감" 을 update 문 1개로 DB에서 처리하므로 읽기와 쓰기 사이에 다른 트랜잭션이 끼어들 수 없다.
+     * 영속성 컨텍스트에 이미 올라와 있는 상품은 DB 값으로 다시 읽어서 맞춰준다.(벌크 연산은 영속성 컨텍스트를 거치지 않는다)
+     * version도 같이 올려서 재고를 읽어둔 채로 엔티티를 수정하려는 트랜잭션이 낙관적 락으로 실패하게 한다.
+     *
+     * @return 재고가 부족하면(또는 상품이 없으면) false
+     */
+    public boolean removeStock(Long itemId, int quantity) {
+        return executeStockUpdate("update item set stock_quantity = stock_quantity - :quantity, version = version + 1 " +
+                "where item_id = :id and stock_quantity >= :quantity", itemId, quantity) == 1;
+    }
+
+    /**
+     * 재고 원복(원자적 update)
+     */
+    public void addStock(Long itemId, int quantity) {
+        executeStockUpdate("update item set stock_quantity = stock_quantity + :quantity, version = version + 1 " +
+                "where item_id = :id", itemId, quantity);
+    }
+
+    /**
+     * JPQL 벌크 update는 2차 캐시의 Item region 전체를 비우기 때문에 주문이 들어올 때마다 상품 캐시가 모두 날아간다.
+     * 그래서 query space를 비운 네이티브 쿼리로 실행하고 해당 상품만 캐시에서 제거한다.
+     * (query space가 없으면 자동 flush 대상도 아니므로 직접 flush 한다)
+     */
+    private int executeStockUpdate(String sql, Long itemId, int quantity) {
+        em.flush();
+        int updated = em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        BulkUpdateSupport.evictFromCache(em, Item.class, Collections.singletonList(itemId));
+        BulkUpdateSupport.refreshIfManaged(em, Item.class, Collections.singletonList(itemId));
+        return updated;
+    }
+
+    /**
+     * 상품 가격/재고 일괄 변경(JDBC batch)
+     * 상품마다 merge(select + 전체 컬럼 update) 하지 않고 update 문만 CATALOG_BATCH_SIZE 개씩 묶어서 보낸다.
+     * null 인 항목은 현재 값을 유지하고(coalesce), version을 올려서 같은 상품을 엔티티로 수정 중인 트랜잭션은 낙관적 락으로 실패하게 한다.
+     *
+     * @return 변경된 상품 수
+     */
+    public int updateCatalog(List<ItemCatalogUpdate> updates) {
+        return BulkUpdateSupport.executeBatch(em, Item.class, "update item set " +
+                        "price = coalesce(?, price), stock_quantity = coalesce(?, stock_quantity), version = version + 1 " +
+                        "where item_id = ?",
+                updates, CATALOG_BATCH_SIZE, ItemCatalogUpdate::getItemId, (ps, update) -> {
+                    ps.setObject(1, update.getPrice(), Types.INTEGER);
+                    ps.setObject(2, update.getStockQuantity(), Types.INTEGER);
+                    ps.setLong(3, update.getItemId());
+                });
+    }
+
+    public List<Item> findByIds(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
                 .getResultList();
     }
 }
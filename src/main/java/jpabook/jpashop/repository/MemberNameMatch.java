@@ -0,0 +1,10 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 회원 이름 검색 방식
+ * PREFIX: 'name%' 검색, member.name 인덱스를 탈 수 있다.(기본값)
+ * CONTAINS: '%name%' 검색, 인덱스를 사용할 수 없어 전체 회원을 스캔한다.
+ */
+public enum MemberNameMatch {
+    EXACT, PREFIX, CONTAINS
+}
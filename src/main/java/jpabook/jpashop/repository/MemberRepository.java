@@ -7,12 +7,16 @@ import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberRepository {
 
+    private static final int RENAME_BATCH_SIZE = 100;
+
     //@PersistenceContext
     //@Autowired
     private final EntityManager em;
@@ -21,6 +25,19 @@ public class MemberRepository {
         em.persist(member);
     }
 
+    /**
+     * insert를 바로 실행한다.(unique 제약 위반을 호출한 곳에서 바로 확인할 수 있도록)
+     */
+    public void saveAndFlush(Member member) {
+        em.persist(member);
+        em.flush();
+    }
+
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
     public Member findOne(Long id) {
         return em.find(Member.class, id);
     }
@@ -30,6 +47,38 @@ public class MemberRepository {
                 .getResultList();
     }
 
+    public List<Member> findByIds(Collection<Long> ids) {
+        return em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 이미 가입된 이름만 조회(엔티티 대신 이름 컬럼만, member.name unique 인덱스 사용)
+     */
+    public List<String> findExistingNames(Collection<String> names) {
+        return em.createQuery("select m.name from Member m where m.name in :names", String.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    /**
+     * 회원 이름 일괄 변경(JDBC batch)
+     * 회원마다 읽고 -> 이름 변경 -> 변경 감지로 update 하지 않고, update 문만 RENAME_BATCH_SIZE 개씩 묶어서 보낸다.
+     * 영속성 컨텍스트와 2차 캐시를 거치지 않으므로
+     * 실행 전에 flush 하고, 실행 후에 해당 회원을 2차 캐시에서 제거하고(커밋 후 한번 더) 영속성 컨텍스트에 있으면 DB 값으로 다시 읽는다.
+     *
+     * @param names member_id -> 변경할 이름
+     * @return 변경된 회원 수
+     */
+    public int updateNames(Map<Long, String> names) {
+        return BulkUpdateSupport.executeBatch(em, Member.class, "update member set name = ? where member_id = ?",
+                names.entrySet(), RENAME_BATCH_SIZE, Map.Entry::getKey, (ps, entry) -> {
+                    ps.setString(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                });
+    }
+
     public List<Member> findByName(String name) {
         return em.createQuery("select m from Member m where m.name = :name", Member.class)
                 .setParameter("name",name)
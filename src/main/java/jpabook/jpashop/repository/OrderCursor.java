@@ -0,0 +1,54 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.exception.InvalidCursorException;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset(seek) 페이징 커서
+ * 마지막으로 조회한 주문의 order_id를 클라이언트가 해석할 필요 없는 토큰(Base64)으로 감싸서 주고받는다.
+ * order_id는 주문 생성 순서대로 증가하므로 orderDate 순서와도 일치한다.
+ */
+@Getter
+public class OrderCursor {
+
+    private static final OrderCursor FIRST = new OrderCursor(0L);
+
+    private final Long lastOrderId;
+
+    private OrderCursor(Long lastOrderId) {
+        this.lastOrderId = lastOrderId;
+    }
+
+    public static OrderCursor first() {
+        return FIRST;
+    }
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getId());
+    }
+
+    /**
+     * 토큰이 없으면 첫 페이지
+     */
+    public static OrderCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return first();
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new OrderCursor(Long.parseLong(decoded));
+        } catch (IllegalArgumentException e) {  //  NumberFormatException 포함
+            throw new InvalidCursorException("잘못된 cursor 입니다. cursor = " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastOrderId).getBytes(StandardCharsets.UTF_8));
+    }
+}
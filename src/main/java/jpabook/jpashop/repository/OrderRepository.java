@@ -1,17 +1,14 @@
 package jpabook.jpashop.repository;
 
-import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
-import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,6 +17,8 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class OrderRepository {
 
+    private static final int MAX_SEARCH_RESULTS = 1000;   //  최대 1000건
+
     private final EntityManager em;
 
     @Transactional
@@ -31,61 +30,40 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
-    public List<Order> findAllByString(OrderSearch orderSearch) {
-        //language=JPAQL
-        String jpql = "select o From Order o join o.member m";
-        boolean isFirstCondition = true;
-        //주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " o.status = :status";
-        }
-        //회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " m.name like :name";
-        } TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000); //최대 1000건
-        if (orderSearch.getOrderStatus() != null) {
-            query = query.setParameter("status", orderSearch.getOrderStatus());
-        }
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
-        }
-        return query.getResultList();
+    /**
+     * 총 주문금액이 없는 주문 id(order_id 순서로 lastOrderId 다음부터)
+     */
+    public List<Long> findIdsWithoutTotalPrice(Long lastOrderId, int limit) {
+        return em.createQuery("select o.id from Order o where o.totalPrice is null and o.id > :lastOrderId order by o.id", Long.class)
+                .setParameter("lastOrderId", lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
     }
 
-    public List<Order> findAllByCriteria(OrderSearch orderSearch) {
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Order> cq = cb.createQuery(Order.class);
-        Root<Order> o = cq.from(Order.class);
-        Join<Order, Member> m = o.join("member", JoinType.INNER); //회원과 조인
-        List<Predicate> criteria = new ArrayList<>();
-        //주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            Predicate status = cb.equal(o.get("status"),
-                    orderSearch.getOrderStatus());
-            criteria.add(status);
-        }
-        //회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name =
-                    cb.like(m.<String>get("name"), "%" +
-                            orderSearch.getMemberName() + "%");
-            criteria.add(name); }
-        cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
-        TypedQuery<Order> query = em.createQuery(cq).setMaxResults(1000); //최대1000건
-        return query.getResultList();
+    /**
+     * 주문상품 합계로 총 주문금액 채우기
+     * 영속성 컨텍스트를 거치지 않는 update 이므로 호출하는 쪽 트랜잭션에 해당 주문이 올라와 있으면 안된다.
+     */
+    @Transactional
+    public int fillTotalPrice(List<Long> orderIds) {
+        return em.createNativeQuery("update oders set total_price = " +
+                "(select coalesce(sum(oi.order_price * oi.count), 0) from order_item oi where oi.order_id = oders.order_id) " +
+                "where order_id in (:orderIds) and total_price is null")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Order.class)    //  Order 쿼리 캐시만 무효화(다른 2차 캐시 region은 그대로)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    /**
+     * 주문 검색(엔티티)
+     * 검색 조건 조합별로 만들어 둔 JPQL을 재사용한다.(OrderSearchQuery)
+     */
+    public List<Order> findAll(OrderSearch orderSearch) {
+        return OrderSearchQuery.create(em, "select o from Order o join o.member m join o.delivery d",
+                Order.class, orderSearch, OrderSearchCursor.first())
+                .setMaxResults(MAX_SEARCH_RESULTS)
+                .getResultList();
     }
 
     public List<Order> findAllWithMemberDelivery() {
@@ -94,16 +72,39 @@ public class OrderRepository {
         return em.createQuery(query, Order.class).getResultList();
     }
 
-    public List<Order> findAllWithItem() {
+    /**
+     * 컬렉션 페치 조인 + 페이징
+     * 컬렉션을 페치 조인한 쿼리에 setFirstResult/setMaxResults를 걸면 하이버네이트가 모든 row를 메모리로 읽어서 페이징한다.(HHH000104)
+     * 그래서 2단계로 나눠서 조회한다.
+     * 1. 페이징 대상 주문 id만 가벼운 쿼리로 DB에서 페이징
+     * 2. 해당 id의 주문만 member, delivery, orderItems, item 까지 페치 조인
+     * Query: 2번, 메모리에는 limit 만큼의 주문만 올라온다.
+     */
+    public List<Order> findAllWithItem(int offset, int limit) {
+        List<Long> orderIds = findOrderIds(offset, limit);
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
 
         return em.createQuery(
                 "select distinct o from Order o " +
                         "join fetch o.member m " +
                         "join fetch o.delivery d " +
                         "join fetch o.orderItems oi " +
-                        "join fetch oi.item i", Order.class)
-                .setFirstResult(1)
-                .setMaxResults(5)
+                        "join fetch oi.item i " +
+                        "where o.id in :orderIds " +
+                        "order by o.id", Order.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * 페이징할 주문 id만 조회(조인, 컬렉션 없음)
+     */
+    private List<Long> findOrderIds(int offset, int limit) {
+        return em.createQuery("select o.id from Order o order by o.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
                 .getResultList();
     }
 
@@ -116,6 +117,22 @@ public class OrderRepository {
                 .getResultList();
     }
 
+    /**
+     * Keyset(seek) 페이징
+     * offset 방식은 앞의 offset 만큼 row를 읽고 버리기 때문에 뒤쪽 페이지로 갈수록 느려진다.
+     * 마지막으로 조회한 order_id 다음부터 PK 인덱스로 바로 찾아 limit 만큼 읽으므로 몇번째 페이지든 첫 페이지와 비용이 같다.
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String query = "select o from Order o join fetch o.member join fetch  o.delivery" +
+                " where o.id > :lastOrderId" +
+                " order by o.id";
+
+        return em.createQuery(query, Order.class)
+                .setParameter("lastOrderId", cursor.getLastOrderId())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
 
     public List<Order> osivTest() {
         String query = "select o from Order o join fetch o.member join fetch  o.delivery";
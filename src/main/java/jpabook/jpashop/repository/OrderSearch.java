@@ -1,8 +1,12 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -10,4 +14,31 @@ public class OrderSearch {
 
     private String memberName;          //  회원 이름
     private OrderStatus orderStatus;    //  주문 상태 [ORDER, CANCEL]
+    private MemberNameMatch memberNameMatch = MemberNameMatch.PREFIX;   //  회원 이름 검색 방식
+    private OrderSearchSort sort = OrderSearchSort.ORDER_ID;            //  정렬
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateFrom;    //  주문일시 시작(포함)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateTo;      //  주문일시 끝(미포함)
+
+    private Long itemId;                    //  주문 상품 id
+    private String itemName;                //  주문 상품 이름(앞부분 일치)
+    private DeliveryStatus deliveryStatus;  //  배송 상태 [READY, COMP]
+    private Integer totalPriceMin;          //  총 주문금액 최소(포함)
+    private Integer totalPriceMax;          //  총 주문금액 최대(포함)
+
+    /**
+     * 빈 값(?memberNameMatch=)은 기본값(PREFIX)으로 검색
+     */
+    public void setMemberNameMatch(MemberNameMatch memberNameMatch) {
+        this.memberNameMatch = memberNameMatch == null ? MemberNameMatch.PREFIX : memberNameMatch;
+    }
+
+    /**
+     * 빈 값(?sort=)은 기본 정렬(ORDER_ID)로 조회
+     */
+    public void setSort(OrderSearchSort sort) {
+        this.sort = sort == null ? OrderSearchSort.ORDER_ID : sort;
+    }
 }
@@ -0,0 +1,63 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidCursorException;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 주문 검색 keyset 페이징 커서
+ * 정렬 컬럼(orderDate)이 같은 주문이 여러 건일 수 있으므로 마지막 주문의 orderDate와 order_id를 함께 담는다.
+ * 토큰 형식: Base64url("order_id" 또는 "order_id,orderDate")
+ */
+@Getter
+public class OrderSearchCursor {
+
+    private static final OrderSearchCursor FIRST = new OrderSearchCursor(null, null);
+
+    private final Long lastOrderId;
+    private final LocalDateTime lastOrderDate;
+
+    private OrderSearchCursor(Long lastOrderId, LocalDateTime lastOrderDate) {
+        this.lastOrderId = lastOrderId;
+        this.lastOrderDate = lastOrderDate;
+    }
+
+    public static OrderSearchCursor first() {
+        return FIRST;
+    }
+
+    public static OrderSearchCursor after(Long orderId, LocalDateTime orderDate) {
+        return new OrderSearchCursor(orderId, orderDate);
+    }
+
+    public boolean isFirst() {
+        return lastOrderId == null;
+    }
+
+    /**
+     * 토큰이 없으면 첫 페이지
+     */
+    public static OrderSearchCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return first();
+        }
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",", 2);
+            LocalDateTime orderDate = values.length > 1 ? LocalDateTime.parse(values[1]) : null;
+            return new OrderSearchCursor(Long.parseLong(values[0]), orderDate);
+        } catch (IllegalArgumentException | DateTimeParseException e) {  //  NumberFormatException 포함
+            throw new InvalidCursorException("잘못된 cursor 입니다. cursor = " + token, e);
+        }
+    }
+
+    public String encode() {
+        String value = lastOrderDate == null ? String.valueOf(lastOrderId) : lastOrderId + "," + lastOrderDate;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,301 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidCursorException;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * OrderSearch 동적 쿼리
+ * 문자열을 조건마다 이어 붙이던 방식(findAllByString) 대신 "어떤 조건이 있는지"(shape)로 JPQL을 한번만 만들어 캐시한다.
+ * 값은 모두 파라미터로 바인딩하므로 같은 shape은 항상 같은 JPQL이 되고,
+ * 하이버네이트 쿼리 플랜 캐시(JPQL 파싱/SQL 변환 결과)와 DB 실행 계획 캐시를 그대로 재사용한다.
+ * (shape 수는 조건 조합 x 정렬 x 호출하는 select 절로 제한되어 있어서 캐시 크기를 따로 제한하지 않는다)
+ *
+ * select 절은 별칭을 o(Order), m(Member), d(Delivery)로 맞추고 member, delivery를 조인해야 한다.
+ */
+public final class OrderSearchQuery {
+
+    private static final char LIKE_ESCAPE = '!';
+    private static final String COUNT_SELECT = "select count(o) from Order o";
+    private static final Map<Shape, String> JPQL_CACHE = new ConcurrentHashMap<>();
+
+    private OrderSearchQuery() {
+    }
+
+    public static <T> TypedQuery<T> create(EntityManager em, String select, Class<T> resultType,
+                                           OrderSearch orderSearch, OrderSearchCursor cursor) {
+        return create(em, select, null, resultType, orderSearch, cursor);
+    }
+
+    /**
+     * @param fixedCondition 검색 조건과 상관없이 항상 붙는 조건(파라미터 없는 JPQL 조각, 없으면 null)
+     */
+    public static <T> TypedQuery<T> create(EntityManager em, String select, String fixedCondition, Class<T> resultType,
+                                           OrderSearch orderSearch, OrderSearchCursor cursor) {
+        Set<Condition> conditions = EnumSet.noneOf(Condition.class);
+        for (Condition condition : Condition.values()) {
+            if (condition.applies(orderSearch, cursor)) {
+                conditions.add(condition);
+            }
+        }
+
+        String jpql = JPQL_CACHE.computeIfAbsent(new Shape(select, fixedCondition, conditions, orderSearch.getSort()), OrderSearchQuery::toJpql);
+        TypedQuery<T> query = em.createQuery(jpql, resultType);
+        conditions.forEach(condition -> condition.bind(query, orderSearch, cursor));
+        return query;
+    }
+
+    /**
+     * create()와 같은 검색 조건으로 전체 건수 조회
+     * 정렬, keyset 조건 없이 검색 조건에 필요한 조인만 한다.(주문 상태/기간만 있으면 oders 인덱스만 읽는다)
+     */
+    public static TypedQuery<Long> createCount(EntityManager em, OrderSearch orderSearch) {
+        Set<Condition> conditions = EnumSet.noneOf(Condition.class);
+        for (Condition condition : Condition.values()) {
+            if (condition != Condition.KEYSET && condition.applies(orderSearch, null)) {
+                conditions.add(condition);
+            }
+        }
+
+        String jpql = JPQL_CACHE.computeIfAbsent(new Shape(COUNT_SELECT, null, conditions, null), OrderSearchQuery::toJpql);
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+        conditions.forEach(condition -> condition.bind(query, orderSearch, null));
+        return query;
+    }
+
+    private static String toJpql(Shape shape) {
+        String joins = "";
+        if (shape.select.equals(COUNT_SELECT)) {
+            joins = shape.conditions.stream()
+                    .map(Condition::join)
+                    .filter(StringUtils::hasText)
+                    .distinct()
+                    .map(join -> " " + join)
+                    .collect(Collectors.joining());
+        }
+        String where = Stream.concat(Stream.of(shape.fixedCondition).filter(Objects::nonNull),
+                shape.conditions.stream().map(condition -> condition.jpql(shape.sort)))
+                .collect(Collectors.joining(" and "));
+        return shape.select + joins +
+                (where.isEmpty() ? "" : " where " + where) +
+                (shape.sort == null ? "" : " order by " + shape.sort.getOrderBy());
+    }
+
+    /**
+     * like 검색어의 %, _ 를 문자 그대로 검색하도록 escape
+     */
+    static String escapeLike(String value) {
+        return value.replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
+
+    private enum Condition {
+
+        STATUS {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getOrderStatus() != null;
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "o.status = :status";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("status", orderSearch.getOrderStatus());
+            }
+        },
+        ORDER_DATE_FROM {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getOrderDateFrom() != null;
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "o.orderDate >= :orderDateFrom";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("orderDateFrom", orderSearch.getOrderDateFrom());
+            }
+        },
+        ORDER_DATE_TO {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getOrderDateTo() != null;
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "o.orderDate < :orderDateTo";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("orderDateTo", orderSearch.getOrderDateTo());
+            }
+        },
+        MEMBER_NAME_EQUALS {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return StringUtils.hasText(orderSearch.getMemberName()) && orderSearch.getMemberNameMatch() == MemberNameMatch.EXACT;
+            }
+
+            String join() {
+                return "join o.member m";
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "m.name = :memberName";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("memberName", orderSearch.getMemberName());
+            }
+        },
+        MEMBER_NAME_LIKE {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return StringUtils.hasText(orderSearch.getMemberName()) && orderSearch.getMemberNameMatch() != MemberNameMatch.EXACT;
+            }
+
+            String join() {
+                return "join o.member m";
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "m.name like :memberName escape '" + LIKE_ESCAPE + "'";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                String name = escapeLike(orderSearch.getMemberName());
+                query.setParameter("memberName", orderSearch.getMemberNameMatch() == MemberNameMatch.PREFIX ? name + "%" : "%" + name + "%");
+            }
+        },
+        DELIVERY_STATUS {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getDeliveryStatus() != null;
+            }
+
+            String join() {
+                return "join o.delivery d";
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "d.status = :deliveryStatus";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("deliveryStatus", orderSearch.getDeliveryStatus());
+            }
+        },
+        /**
+         * 주문 상품은 여러 건이므로 조인하지 않고 exists 로 찾는다.(조인하면 주문이 상품 수만큼 중복된다)
+         */
+        ITEM_ID {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getItemId() != null;
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "exists (select oi.id from OrderItem oi where oi.order = o and oi.item.id = :itemId)";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("itemId", orderSearch.getItemId());
+            }
+        },
+        /**
+         * 상품 이름은 앞부분 일치 검색(item.name 인덱스)
+         */
+        ITEM_NAME {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return StringUtils.hasText(orderSearch.getItemName());
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "exists (select oi.id from OrderItem oi join oi.item i where oi.order = o" +
+                        " and i.name like :itemName escape '" + LIKE_ESCAPE + "')";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("itemName", escapeLike(orderSearch.getItemName()) + "%");
+            }
+        },
+        /**
+         * 저장된 총 주문금액으로 검색(주문상품을 읽지 않는다)
+         */
+        TOTAL_PRICE_MIN {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getTotalPriceMin() != null;
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "o.totalPrice >= :totalPriceMin";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("totalPriceMin", orderSearch.getTotalPriceMin());
+            }
+        },
+        TOTAL_PRICE_MAX {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return orderSearch.getTotalPriceMax() != null;
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return "o.totalPrice <= :totalPriceMax";
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("totalPriceMax", orderSearch.getTotalPriceMax());
+            }
+        },
+        KEYSET {
+            boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor) {
+                return cursor != null && !cursor.isFirst();
+            }
+
+            String jpql(OrderSearchSort sort) {
+                return sort.getKeyset();
+            }
+
+            void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor) {
+                query.setParameter("lastOrderId", cursor.getLastOrderId());
+                if (orderSearch.getSort().usesOrderDate()) {
+                    if (cursor.getLastOrderDate() == null) {
+                        throw new InvalidCursorException("정렬과 맞지 않는 cursor 입니다. sort = " + orderSearch.getSort());
+                    }
+                    query.setParameter("lastOrderDate", cursor.getLastOrderDate());
+                }
+            }
+        };
+
+        abstract boolean applies(OrderSearch orderSearch, OrderSearchCursor cursor);
+
+        /**
+         * 건수 조회에서 이 조건에 필요한 조인(없으면 null)
+         */
+        String join() {
+            return null;
+        }
+
+        abstract String jpql(OrderSearchSort sort);
+
+        abstract void bind(TypedQuery<?> query, OrderSearch orderSearch, OrderSearchCursor cursor);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Shape {
+        private final String select;
+        private final String fixedCondition;
+        private final Set<Condition> conditions;
+        private final OrderSearchSort sort;
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 주문 검색 정렬
+ * 정렬마다 keyset 페이징 조건이 다르다.(정렬 컬럼 + order_id 로 다음 페이지 시작 위치를 찾는다)
+ */
+public enum OrderSearchSort {
+
+    ORDER_ID("o.id asc", "o.id > :lastOrderId"),     //  주문번호 순
+    ORDER_DATE_DESC("o.orderDate desc, o.id desc",  //  최신 주문 순(oders(order_date, order_id) 인덱스)
+            "(o.orderDate < :lastOrderDate or (o.orderDate = :lastOrderDate and o.id < :lastOrderId))");
+
+    private final String orderBy;
+    private final String keyset;
+
+    OrderSearchSort(String orderBy, String keyset) {
+        this.orderBy = orderBy;
+        this.keyset = keyset;
+    }
+
+    String getOrderBy() {
+        return orderBy;
+    }
+
+    String getKeyset() {
+        return keyset;
+    }
+
+    boolean usesOrderDate() {
+        return this == ORDER_DATE_DESC;
+    }
+}
@@ -0,0 +1,88 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.querycount.QueryCount;
+import jpabook.jpashop.querycount.QueryCountHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 조회 쿼리 병렬 실행기
+ * 각 작업은 별도 스레드에서 자신만의 읽기 전용 트랜잭션(EntityManager, 커넥션)으로 실행된다.
+ * 스레드 수와 대기 큐가 제한되어 있고, 큐가 가득 차면 호출한 스레드에서 직접 실행한다.(커넥션 풀 고갈 방지)
+ */
+@Component
+public class ReadOnlyQueryExecutor {
+
+    private static final ThreadLocal<Boolean> IN_TASK = ThreadLocal.withInitial(() -> false);
+
+    private final TransactionTemplate readOnlyTx;
+    private final ThreadPoolExecutor pool;
+    private final int parallelism;
+
+    public ReadOnlyQueryExecutor(PlatformTransactionManager transactionManager,
+                                 @Value("${jpashop.query.parallelism:1}") int parallelism) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.parallelism = Math.max(1, parallelism);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("read-query-");
+        threadFactory.setDaemon(true);
+        this.pool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(this.parallelism * 16), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * parallelism = 1 이면 병렬 실행할 필요 없이 호출한 스레드에서 바로 실행하면 된다.
+     * 작업 안에서 다시 submit 하고 기다리면 스레드가 모두 대기 상태가 되어 데드락이 날 수 있으므로 작업 안에서는 병렬 실행하지 않는다.
+     */
+    public boolean isParallel() {
+        return parallelism > 1 && !IN_TASK.get();
+    }
+
+    /**
+     * 호출한 요청의 QueryCount를 작업 스레드에도 바인딩해서 병렬로 실행된 쿼리도 요청 쿼리 수에 포함시킨다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        QueryCount queryCount = QueryCountHolder.get();
+        return CompletableFuture.supplyAsync(() -> {
+            QueryCount previous = QueryCountHolder.get();   //  CallerRunsPolicy 로 호출 스레드에서 실행되는 경우 복원
+            boolean wasInTask = IN_TASK.get();
+            IN_TASK.set(true);
+            QueryCountHolder.set(queryCount);
+            try {
+                return readOnlyTx.execute(status -> query.get());
+            } finally {
+                IN_TASK.set(wasInTask);
+                QueryCountHolder.set(previous);
+            }
+        }, pool);
+    }
+
+    /**
+     * CompletionException 으로 감싸진 원래 예외를 그대로 던진다.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
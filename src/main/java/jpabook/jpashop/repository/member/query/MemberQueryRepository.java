@@ -0,0 +1,50 @@
+package jpabook.jpashop.repository.member.query;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 회원 목록 조회 전용(DTO 직접 조회)
+ */
+@Repository
+public class MemberQueryRepository {
+
+    private final EntityManager em;
+    private final LoadingCache<Boolean, Long> countCache;     //  키는 하나(전체 회원 수)
+
+    public MemberQueryRepository(EntityManager em,
+                                 @Value("${jpashop.member.count-cache-ttl:10s}") Duration countCacheTtl) {
+        this.em = em;
+        this.countCache = Caffeine.newBuilder()
+                .expireAfterWrite(countCacheTtl)
+                .build(key -> em.createQuery("select count(m.id) from Member m", Long.class).getSingleResult());
+    }
+
+    /**
+     * Keyset 페이징 + 필요한 컬럼(id, name)만 조회
+     * 엔티티(주소 포함)를 영속성 컨텍스트에 올리지 않고, 마지막 member_id 다음부터 PK 인덱스로 limit 만큼만 읽는다.
+     */
+    public List<MemberQueryDto> findMembers(Long lastMemberId, int limit) {
+        return em.createQuery("select new jpabook.jpashop.repository.member.query.MemberQueryDto(m.id, m.name)" +
+                " from Member m" +
+                " where m.id > :lastMemberId" +
+                " order by m.id", MemberQueryDto.class)
+                .setParameter("lastMemberId", lastMemberId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 전체 회원 수
+     * 목록을 읽어서 세지 않고 count 쿼리로 구하며, 짧은 시간(count-cache-ttl) 동안은 캐시한 값을 돌려준다.(근사치)
+     */
+    public long countMembers() {
+        return countCache.get(Boolean.TRUE);
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * OrderFlatDto(주문 x 주문상품 row) -> OrderQueryDto 조립
+ * row가 order id 순으로 정렬되어 있다는 전제로 한번만 순회하면서 order id가 바뀔 때마다 주문 1건을 완성한다.
+ * - groupingBy 처럼 key 용 DTO를 따로 만들지 않으므로 OrderQueryDto는 주문당 정확히 1번만 생성된다.
+ * - HashMap을 거치지 않으므로 DB 정렬 순서가 그대로 유지된다.
+ * - Iterator 이므로 스트리밍 조회 결과도 주문 1건씩 꺼내 쓸 수 있다.
+ */
+public class OrderFlatAssembler implements Iterator<OrderQueryDto> {
+
+    private final Iterator<OrderFlatDto> rows;
+    private OrderFlatDto pending;   //  다음 주문의 첫번째 row
+
+    public OrderFlatAssembler(Iterator<OrderFlatDto> rows) {
+        this.rows = rows;
+        this.pending = rows.hasNext() ? rows.next() : null;
+    }
+
+    public static List<OrderQueryDto> assemble(List<OrderFlatDto> rows) {
+        return assemble(rows, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 주문 단위 페이징
+     * offset 만큼의 주문은 DTO를 만들지 않고 건너뛰고, limit 건을 채우면 나머지 row는 읽지 않는다.
+     */
+    public static List<OrderQueryDto> assemble(List<OrderFlatDto> rows, int offset, int limit) {
+        OrderFlatAssembler assembler = new OrderFlatAssembler(rows.iterator());
+        for (int i = 0; i < offset && assembler.hasNext(); i++) {
+            assembler.skip();
+        }
+
+        List<OrderQueryDto> result = new ArrayList<>();
+        while (result.size() < limit && assembler.hasNext()) {
+            result.add(assembler.next());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null;
+    }
+
+    @Override
+    public OrderQueryDto next() {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+
+        OrderFlatDto first = pending;
+        OrderQueryDto order = new OrderQueryDto(first.getOrderId(), first.getName(), first.getOrderDate(),
+                first.getOrderStatus(), first.getAddress(), new ArrayList<>());
+        order.getOrderItems().add(toOrderItem(first));
+
+        pending = null;
+        while (rows.hasNext()) {
+            OrderFlatDto row = rows.next();
+            if (!first.getOrderId().equals(row.getOrderId())) {
+                pending = row;
+                break;
+            }
+            order.getOrderItems().add(toOrderItem(row));
+        }
+        return order;
+    }
+
+    /**
+     * 다음 주문 1건을 DTO 생성 없이 건너뛰기
+     */
+    private void skip() {
+        Long orderId = pending.getOrderId();
+        pending = null;
+        while (rows.hasNext()) {
+            OrderFlatDto row = rows.next();
+            if (!orderId.equals(row.getOrderId())) {
+                pending = row;
+                break;
+            }
+        }
+    }
+
+    private OrderItemQueryDto toOrderItem(OrderFlatDto row) {
+        return new OrderItemQueryDto(row.getOrderId(), row.getItemName(), row.getOrderPrice(), row.getCount());
+    }
+}
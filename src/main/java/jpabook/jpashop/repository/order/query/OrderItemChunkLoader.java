@@ -0,0 +1,80 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.repository.ReadOnlyQueryExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 id 목록으로 orderItem 조회(in 절 분할)
+ * 주문 id를 in 절 하나에 모두 넣으면
+ * 1. 드라이버/DB 파라미터 개수 제한을 넘을 수 있고
+ * 2. id 개수마다 다른 SQL이 만들어져서 쿼리 플랜 캐시를 재사용하지 못한다.
+ * 그래서 id를 2의 거듭제곱 크기 묶음으로 나누고 모자란 자리는 마지막 id로 채워서 SQL 모양을 몇 개로 고정한다.(1, 2, 4 ... chunkSize)
+ */
+@Component
+public class OrderItemChunkLoader {
+
+    private final EntityManager em;
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final int chunkSize;
+
+    public OrderItemChunkLoader(EntityManager em, ReadOnlyQueryExecutor queryExecutor,
+                                @Value("${jpashop.query.in-chunk-size:1024}") int chunkSize) {
+        this.em = em;
+        this.queryExecutor = queryExecutor;
+        this.chunkSize = Integer.highestOneBit(Math.max(1, chunkSize));    //  2의 거듭제곱으로 내림
+    }
+
+    /**
+     * 묶음이 여러개이고 병렬 실행이 켜져 있으면 묶음마다 별도 읽기 전용 트랜잭션으로 동시에 조회한다.
+     */
+    public Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        List<List<Long>> chunks = split(orderIds, chunkSize);
+
+        List<OrderItemQueryDto> orderItems = new ArrayList<>();
+        if (queryExecutor.isParallel() && chunks.size() > 1) {
+            List<CompletableFuture<List<OrderItemQueryDto>>> futures = chunks.stream()
+                    .map(chunk -> queryExecutor.submit(() -> findOrderItems(chunk)))
+                    .collect(Collectors.toList());
+            futures.forEach(f -> orderItems.addAll(ReadOnlyQueryExecutor.join(f)));
+        } else {
+            chunks.forEach(chunk -> orderItems.addAll(findOrderItems(chunk)));
+        }
+
+        return orderItems.stream().collect(Collectors.groupingBy(o -> o.getOrderId()));  // List -> Map으로 변환
+    }
+
+    private List<OrderItemQueryDto> findOrderItems(List<Long> orderIds) {
+        return em.createQuery("select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count) " +
+                        "from OrderItem oi " +
+                        "join oi.item i " +
+                        "where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * ids를 최대 chunkSize(2의 거듭제곱) 크기로 나누고, 마지막 묶음은 다음 2의 거듭제곱 크기까지 마지막 id로 채운다.
+     * 중복 id는 in 절 결과에 영향이 없다.
+     */
+    static List<List<Long>> split(List<Long> ids, int chunkSize) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = new ArrayList<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            int paddedSize = Integer.bitCount(chunk.size()) == 1 ? chunk.size() : Integer.highestOneBit(chunk.size()) << 1;
+            Long last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < paddedSize) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
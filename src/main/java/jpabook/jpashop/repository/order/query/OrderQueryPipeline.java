@@ -0,0 +1,131 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.repository.ReadOnlyQueryExecutor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+/**
+ * 대량 조회용 DTO 파이프라인(findAllByDto_opmization 의 페이지 단위 버전)
+ * 루트(toOne) 조회와 orderItem 컬렉션 조회를 페이지 단위로 나눠서
+ * N 페이지의 orderItem 조회와 N+1 페이지의 루트 조회가 동시에 실행되도록 겹친다.
+ * 각 단계는 ReadOnlyQueryExecutor 에서 자신만의 읽기 전용 트랜잭션으로 실행되고, 단계별 실행 시간을 누적한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderQueryPipeline {
+
+    private static final String ROOT = "root";
+    private static final String ITEMS = "items";
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderItemChunkLoader orderItemChunkLoader;
+    private final ReadOnlyQueryExecutor queryExecutor;
+
+    private final Map<String, StageLatency> stages = createStages();
+
+    public List<OrderQueryDto> findAll(int pageSize) {
+        List<CompletableFuture<List<OrderQueryDto>>> pages = new ArrayList<>();
+
+        List<OrderQueryDto> orders = ReadOnlyQueryExecutor.join(submitRoot(0L, pageSize));
+        while (!orders.isEmpty()) {
+            pages.add(submitItems(orders));     //  N 페이지 컬렉션 조회(비동기)
+            if (orders.size() < pageSize) {
+                break;
+            }
+            Long lastOrderId = orders.get(orders.size() - 1).getOrderId();
+            orders = ReadOnlyQueryExecutor.join(submitRoot(lastOrderId, pageSize));    //  N+1 페이지 루트 조회(N 페이지 컬렉션 조회와 동시에 실행)
+        }
+
+        List<OrderQueryDto> result = new ArrayList<>();
+        pages.forEach(page -> result.addAll(ReadOnlyQueryExecutor.join(page)));
+
+        log.debug("order pipeline pages={} orders={} stages={}", pages.size(), result.size(), getStageLatencies());
+        return result;
+    }
+
+    private CompletableFuture<List<OrderQueryDto>> submitRoot(Long lastOrderId, int pageSize) {
+        return queryExecutor.submit(() -> timed(ROOT, () -> orderQueryRepository.findOrders(lastOrderId, pageSize)));
+    }
+
+    private CompletableFuture<List<OrderQueryDto>> submitItems(List<OrderQueryDto> orders) {
+        return queryExecutor.submit(() -> timed(ITEMS, () -> {
+            List<Long> orderIds = new ArrayList<>();
+            orders.forEach(o -> orderIds.add(o.getOrderId()));
+            Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItemChunkLoader.findOrderItemMap(orderIds);
+            orders.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+            return orders;
+        }));
+    }
+
+    private <T> T timed(String stage, Supplier<T> query) {
+        long start = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            stages.get(stage).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 단계별 누적 실행 시간
+     */
+    public Map<String, StageLatencyDto> getStageLatencies() {
+        Map<String, StageLatencyDto> result = new LinkedHashMap<>();
+        stages.forEach((name, latency) -> result.put(name, latency.toDto()));
+        return result;
+    }
+
+    private static Map<String, StageLatency> createStages() {
+        Map<String, StageLatency> stages = new LinkedHashMap<>();
+        stages.put(ROOT, new StageLatency());
+        stages.put(ITEMS, new StageLatency());
+        return stages;
+    }
+
+    private static class StageLatency {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        StageLatencyDto toDto() {
+            long count = this.count.get();
+            double totalMs = totalNanos.get() / 1_000_000.0;
+            return new StageLatencyDto(count, totalMs, count == 0 ? 0 : totalMs / count, maxNanos.get() / 1_000_000.0);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StageLatencyDto {
+
+        private long count;
+        private double totalMs;
+        private double avgMs;
+        private double maxMs;
+
+        @Override
+        public String toString() {
+            return String.format("{count=%d, avg=%.2fms, max=%.2fms}", count, avgMs, maxMs);
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package jpabook.jpashop.repository.order.query;
 
-import jpabook.jpashop.domain.OrderItem;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final OrderItemChunkLoader orderItemChunkLoader;
 
     /**
      * 컬렉션은 별도로 조회
@@ -55,31 +58,33 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    /**
+     * 1:N 관계(컬렉션)를 제외한 나머지를 keyset 페이징으로 조회
+     */
+    public List<OrderQueryDto> findOrders(Long lastOrderId, int limit) {
+        return em.createQuery("select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) from Order o " +
+                "join o.member m " +
+                "join o.delivery d " +
+                "where o.id > :lastOrderId " +
+                "order by o.id", OrderQueryDto.class)
+                .setParameter("lastOrderId", lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public List<OrderQueryDto> findAllByDto_opmization() {
         //루트 조회(toOne 코드를 모두 한번에 조회)
         List<OrderQueryDto> result = findOrders();
 
         //orderItem 컬렉션을 MAP 한방에 조회
         List<Long> orderIds = toOrderIts(result);
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItemChunkLoader.findOrderItemMap(orderIds);    //  in 절 분할 조회
 
         //루프를 돌면서 컬렉션 추가(추가 쿼리 실행X)
         result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
         return result;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery("select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count) " +
-                        "from OrderItem oi " +
-                        "join oi.item i " +
-                        "where oi.order.id in :orderIds", OrderItemQueryDto.class)
-                .setParameter("orderIds", orderIds)
-                .getResultList();
-
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream().collect(Collectors.groupingBy(o -> o.getOrderId()));  // List -> Map으로 변환
-        return orderItemMap;
-    }
-
     private List<Long> toOrderIts(List<OrderQueryDto> result) {
         List<Long> orderIds = result.stream().map(o -> o.getOrderId())
                 .collect(Collectors.toList());
@@ -93,8 +98,56 @@ public class OrderQueryRepository {
                         "join o.member m " +
                         "join o.delivery d " +
                         "join o.orderItems oi " +
-                        "join oi.item i", OrderFlatDto.class)
+                        "join oi.item i " +
+                        "order by o.id", OrderFlatDto.class)
+                .getResultList();
+
+    }
+
+    /**
+     * 주문 단위 페이징 flat 조회
+     * flat row에 바로 페이징을 걸면 주문상품 row 기준으로 잘리기 때문에 주문 id를 먼저 페이징한 뒤 해당 주문의 row만 조회한다.
+     * Query: 2번
+     */
+    public List<OrderFlatDto> findAllByDto_flat(int offset, int limit) {
+        List<Long> orderIds = em.createQuery("select o.id from Order o order by o.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count) "  +
+                        "from Order o " +
+                        "join o.member m " +
+                        "join o.delivery d " +
+                        "join o.orderItems oi " +
+                        "join oi.item i " +
+                        "where o.id in :orderIds " +
+                        "order by o.id", OrderFlatDto.class)
+                .setParameter("orderIds", orderIds)
                 .getResultList();
+    }
 
+    /**
+     * findAllByDto_flat()의 스트리밍 버전
+     * getResultStream()은 forward-only 스크롤로 동작하므로 전체 결과를 List로 만들지 않고 fetchSize 만큼씩 DB에서 읽어온다.
+     * 주문 단위로 다시 묶을 수 있도록 order id 순으로 정렬한다.
+     * 주의: 트랜잭션 안에서 사용하고 사용 후 반드시 close 해야한다.(커넥션, 커서 반환)
+     */
+    public Stream<OrderFlatDto> streamAllByDto_flat(int fetchSize) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count) "  +
+                        "from Order o " +
+                        "join o.member m " +
+                        "join o.delivery d " +
+                        "join o.orderItems oi " +
+                        "join oi.item i " +
+                        "order by o.id", OrderFlatDto.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
     }
 }
@@ -1,20 +1,32 @@
 package jpabook.jpashop.repository.order.query;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class OrderQueryService {
 
+    private static final int EXPORT_FETCH_SIZE = 500;       //  JDBC fetch size
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;  //  주문 N건 마다 영속성 컨텍스트, 출력 버퍼 비우기
+
     private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager em;
 
     public List<Order> osivTest2() {
         List<Order> all = orderRepository.osivTest2();
@@ -28,4 +40,46 @@ public class OrderQueryService {
 
         return all;
     }
+
+    /**
+     * V3.2 keyset 페이징
+     * OSIV = false 이므로 컬렉션은 트랜잭션 안에서 초기화 한다.
+     * orderItems, item은 default_batch_fetch_size 설정으로 페이지 단위 in 쿼리 1번씩만 나간다.
+     */
+    public List<Order> findOrdersAfter(OrderCursor cursor, int limit) {
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(cursor, limit);
+
+        for (Order order : orders) {
+            List<OrderItem> orderItems = order.getOrderItems();         //  LAZY 강제초기화(OrderItem batch 조회)
+            orderItems.stream().forEach(o -> o.getItem().getName());    //  LAZY 강제초기화(Item batch 조회)
+        }
+
+        return orders;
+    }
+
+    /**
+     * 전체 주문 NDJSON(한 줄에 주문 1건) 내보내기
+     * order id 순으로 정렬된 flat row를 스트리밍으로 읽으면서 id가 바뀔 때마다 OrderQueryDto 1건을 완성해서 바로 쓴다.
+     * 메모리에는 현재 조립중인 주문 1건만 남기 때문에 주문 수와 관계없이 사용 메모리가 일정하다.
+     */
+    public void exportOrders(OutputStream out) throws IOException {
+        try (Stream<OrderFlatDto> rows = orderQueryRepository.streamAllByDto_flat(EXPORT_FETCH_SIZE)) {
+            OrderFlatAssembler orders = new OrderFlatAssembler(rows.iterator());
+            int written = 0;
+
+            while (orders.hasNext()) {
+                writeLine(out, orders.next());
+                if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                    em.clear();
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+    }
+
+    private void writeLine(OutputStream out, OrderQueryDto dto) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(dto));
+        out.write('\n');
+    }
 }
@@ -0,0 +1,39 @@
+package jpabook.jpashop.repository.order.search;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 화면(order/orderList.html) 조회 모델
+ * 화면에 표시하는 컬럼만 담는다.(대표상품 = 주문의 첫번째 주문상품)
+ */
+@Data
+public class OrderListDto {
+
+    private Long orderId;
+    private String memberName;
+    private String itemName;    //  대표상품 이름
+    private int orderPrice;     //  대표상품 주문가격
+    private int count;          //  대표상품 주문수량
+    private Integer totalPrice;
+    private OrderStatus orderStatus;
+    private LocalDateTime orderDate;
+
+    public OrderListDto(Long orderId, String memberName, String itemName, int orderPrice, int count,
+                        Integer totalPrice, OrderStatus orderStatus, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+        this.totalPrice = totalPrice;
+        this.orderStatus = orderStatus;
+        this.orderDate = orderDate;
+    }
+
+    public boolean isCancelable() {
+        return orderStatus == OrderStatus.ORDER;
+    }
+}
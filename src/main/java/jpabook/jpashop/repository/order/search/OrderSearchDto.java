@@ -0,0 +1,27 @@
+package jpabook.jpashop.repository.order.search;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderSearchDto {
+
+    private Long orderId;
+    private String memberName;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private DeliveryStatus deliveryStatus;
+    private Integer totalPrice;
+
+    public OrderSearchDto(Long orderId, String memberName, LocalDateTime orderDate, OrderStatus orderStatus, DeliveryStatus deliveryStatus, Integer totalPrice) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.deliveryStatus = deliveryStatus;
+        this.totalPrice = totalPrice;
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.repository.order.search;
+
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchCursor;
+import jpabook.jpashop.repository.OrderSearchQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 주문 검색(DTO 직접 조회 + keyset 페이징)
+ * 엔티티와 프록시 대신 화면에 필요한 컬럼만 조회하고, 마지막 row 다음부터 인덱스로 바로 찾아 limit 만큼만 읽는다.
+ * Query: 1번
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSearchRepository {
+
+    private final EntityManager em;
+
+    public List<OrderSearchDto> search(OrderSearch orderSearch, OrderSearchCursor cursor, int limit) {
+        return OrderSearchQuery.create(em,
+                "select new jpabook.jpashop.repository.order.search.OrderSearchDto(o.id, m.name, o.orderDate, o.status, d.status, o.totalPrice)" +
+                        " from Order o join o.member m join o.delivery d",
+                OrderSearchDto.class, orderSearch, cursor)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 주문 목록 화면 조회
+     * 대표상품(주문의 첫번째 주문상품)만 조인해서 주문 1건당 1 row로 회원, 상품 컬럼까지 한번에 조회한다.
+     * 페이지 크기와 상관없이 Query: 1번
+     */
+    public List<OrderListDto> searchOrderList(OrderSearch orderSearch, OrderSearchCursor cursor, int limit) {
+        return OrderSearchQuery.create(em,
+                "select new jpabook.jpashop.repository.order.search.OrderListDto(o.id, m.name, i.name, oi.orderPrice, oi.count, o.totalPrice, o.status, o.orderDate)" +
+                        " from Order o join o.member m join o.delivery d join o.orderItems oi join oi.item i",
+                "oi.id = (select min(foi.id) from OrderItem foi where foi.order = o)",
+                OrderListDto.class, orderSearch, cursor)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * search()와 같은 검색 조건의 전체 건수
+     */
+    public long count(OrderSearch orderSearch) {
+        return OrderSearchQuery.createCount(em, orderSearch).getSingleResult();
+    }
+}
@@ -23,4 +23,16 @@ public class OrderSimpleQueryRepository {
         return em.createQuery("select new jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
                 " from Order o join o.member m join o.delivery d", SimpleOrderQueryDto.class).getResultList();
     }
+
+    /**
+     * findOrderDtos() 페이징
+     */
+    public List<SimpleOrderQueryDto> findOrderDtos(int offset, int limit) {
+        return em.createQuery("select new jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                " from Order o join o.member m join o.delivery d" +
+                " order by o.id", SimpleOrderQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
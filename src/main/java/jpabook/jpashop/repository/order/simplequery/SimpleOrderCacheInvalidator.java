@@ -0,0 +1,30 @@
+package jpabook.jpashop.repository.order.simplequery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Order, Member, Delivery 엔티티 리스너
+ * SimpleOrderQueryDto 에 들어가는 엔티티가 저장/수정/삭제되면 SimpleOrderQueryCache를 비운다.
+ * (Hibernate가 Spring 빈으로 생성하므로 의존관계 주입이 가능하다)
+ * 리스너는 EntityManagerFactory를 만드는 중에 생성되는데, 캐시는 EntityManager가 필요한 리포지토리에 의존하므로
+ * 생성 시점에 주입받으면 순환 참조가 된다. 그래서 처음 사용할 때 꺼내온다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SimpleOrderCacheInvalidator {
+
+    private final ObjectProvider<SimpleOrderQueryCache> simpleOrderQueryCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        simpleOrderQueryCache.ifAvailable(SimpleOrderQueryCache::invalidate);
+    }
+}
@@ -0,0 +1,83 @@
+package jpabook.jpashop.repository.order.simplequery;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /api/v4/simple-orders 페이지 캐시(read-through)
+ * Order, Member, Delivery가 변경되면 SimpleOrderCacheInvalidator가 캐시 전체를 비운다.
+ * 크기 제한(max-pages)과 TTL이 있어서 변경 감지를 거치지 않는 수정(벌크 연산 등)도 TTL 이후에는 반영된다.
+ */
+@Component
+public class SimpleOrderQueryCache {
+
+    private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final Cache<PageKey, List<SimpleOrderQueryDto>> cache;
+    private final AtomicLong generation = new AtomicLong();    //  무효화 될 때마다 증가
+
+    public SimpleOrderQueryCache(OrderSimpleQueryRepository orderSimpleQueryRepository,
+                                 @Value("${jpashop.simple-order-cache.max-pages:100}") long maxPages,
+                                 @Value("${jpashop.simple-order-cache.ttl:30s}") Duration ttl) {
+        this.orderSimpleQueryRepository = orderSimpleQueryRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * 조회 도중 무효화 되었으면(조회한 데이터가 이미 오래된 값일 수 있으므로) 캐시에 넣지 않는다.
+     */
+    public List<SimpleOrderQueryDto> findOrderDtos(int offset, int limit) {
+        PageKey key = new PageKey(offset, limit);
+        List<SimpleOrderQueryDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedGeneration = generation.get();
+        List<SimpleOrderQueryDto> page = Collections.unmodifiableList(orderSimpleQueryRepository.findOrderDtos(offset, limit));
+        if (generation.get() == loadedGeneration) {
+            cache.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * 지금 한번, 트랜잭션 커밋 후 한번 더 비운다.(커밋 전에 다른 요청이 이전 데이터를 다시 캐시에 올릴 수 있음)
+     */
+    public void invalidate() {
+        invalidateNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateNow();
+                }
+            });
+        }
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PageKey {
+        private final int offset;
+        private final int limit;
+    }
+}
@@ -0,0 +1,134 @@
+package jpabook.jpashop.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 상품 CSV를 한 줄씩 읽는다.(전체를 메모리에 올리지 않음)
+ * 첫 줄은 헤더(type,name,price,stockQuantity,author,isbn,artist,etc,director,actor - 순서 무관, stock_quantity 처럼 써도 됨)
+ * 큰따옴표로 감싼 값 안의 쉼표, "" 를 지원한다.(값 안의 줄바꿈은 지원하지 않음)
+ * 숫자 형식이 잘못된 줄은 값을 비워서 넘기므로 CatalogRecord.toItem()에서 건너뛸 상품으로 처리된다.
+ */
+class CatalogCsvReader implements Iterator<CatalogRecord> {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private String nextLine;
+
+    CatalogCsvReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);    //  BOM 제거
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(normalize(names.get(i)), i);
+        }
+        nextLine = readNonEmptyLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public CatalogRecord next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        List<String> values = split(nextLine);
+        nextLine = readNonEmptyLine();
+
+        CatalogRecord record = new CatalogRecord();
+        record.setType(value(values, "type"));
+        record.setName(value(values, "name"));
+        record.setPrice(intValue(values, "price"));
+        record.setStockQuantity(intValue(values, "stockquantity"));
+        record.setAuthor(value(values, "author"));
+        record.setIsbn(value(values, "isbn"));
+        record.setArtist(value(values, "artist"));
+        record.setEtc(value(values, "etc"));
+        record.setDirector(value(values, "director"));
+        record.setActor(value(values, "actor"));
+        return record;
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private Integer intValue(List<String> values, String column) {
+        String value = value(values, column);
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String readNonEmptyLine() {
+        String line;
+        while ((line = readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase();
+    }
+
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
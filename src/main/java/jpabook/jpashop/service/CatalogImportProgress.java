@@ -0,0 +1,62 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 상품 일괄 등록 진행 상황
+ * 등록 중에는 다른 요청(GET /api/v1/items/import)에서 읽으므로 thread-safe 하게 만든다.
+ */
+public class CatalogImportProgress {
+
+    private static final int MAX_ERRORS = 100;  //  오류 메시지는 앞의 N건만 보관
+
+    private final String importId;
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    CatalogImportProgress(String importId) {
+        this.importId = importId;
+    }
+
+    void imported(int count) {
+        imported.addAndGet(count);
+    }
+
+    void skipped(CatalogRecord record, String reason) {
+        skipped.incrementAndGet();
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(record.getRowNumber() + "번째 상품: " + reason);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long elapsedMs = (System.nanoTime() - startedNanos) / 1_000_000;
+        long imported = this.imported.get();
+        List<String> errors;
+        synchronized (this.errors) {
+            errors = new ArrayList<>(this.errors);
+        }
+        return new Snapshot(importId, imported, skipped.get(), elapsedMs,
+                elapsedMs == 0 ? imported : imported * 1000 / elapsedMs, errors);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        private String importId;
+        private long imported;
+        private long skipped;
+        private long elapsedMs;
+        private long itemsPerSecond;
+        private List<String> errors;
+    }
+}
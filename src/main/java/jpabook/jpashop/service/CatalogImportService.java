@@ -0,0 +1,157 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.item.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 상품 일괄 등록(CSV, JSON 배열/NDJSON)
+ * 입력을 한 건씩 읽으면서 flush-interval 건마다 persist -> flush -> clear -> 커밋 한다.
+ * - 메모리에는 flush-interval 건의 상품만 올라온다.
+ * - insert는 batch-size 개씩 JDBC batch로 보낸다.(세션 단위 설정)
+ *   Book/Album/Movie는 같은 item 테이블이지만 dtype 값이 달라 insert 문이 다르므로 order_inserts로 종류별로 모아서 batch가 끊기지 않게 한다.
+ *   id는 pooled-lo 시퀀스(PooledSequenceGenerator)로 미리 할당되므로 insert 마다 시퀀스를 조회하지 않는다.
+ * - 2차 캐시에는 넣지 않는다.(CacheMode.IGNORE, 대량 등록으로 자주 쓰는 상품이 캐시에서 밀려나지 않도록)
+ * 중간에 실패하면 이미 커밋된 chunk는 그대로 남고, 잘못된 상품은 건너뛰고 결과에 오류로 알려준다.
+ */
+@Slf4j
+@Service
+public class CatalogImportService {
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int flushInterval;
+
+    private final Map<String, CatalogImportProgress> running = new ConcurrentHashMap<>();
+
+    public CatalogImportService(EntityManager em, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                @Value("${jpashop.catalog-import.batch-size:500}") int batchSize,
+                                @Value("${jpashop.catalog-import.flush-interval:5000}") int flushInterval) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    public CatalogImportProgress.Snapshot importCsv(InputStream in) {
+        return importRecords(new CatalogCsvReader(in));
+    }
+
+    /**
+     * JSON 배열([{...}, {...}]) 또는 한 줄에 객체 1개(NDJSON)
+     * 객체 단위로 읽은 뒤 CatalogRecord로 변환하므로 값의 타입이 잘못된 상품("price":"abc")은 건너뛰고 계속 등록한다.
+     * (JSON 문법 자체가 깨진 경우는 이후 위치를 알 수 없으므로 중단한다)
+     */
+    public CatalogImportProgress.Snapshot importJson(InputStream in) throws IOException {
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            return importRecords(new Iterator<CatalogRecord>() {
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public CatalogRecord next() {
+                    return toRecord(nodes.next());
+                }
+            });
+        }
+    }
+
+    private CatalogRecord toRecord(JsonNode node) {
+        try {
+            return objectMapper.treeToValue(node, CatalogRecord.class);
+        } catch (JsonProcessingException e) {
+            return CatalogRecord.invalid("형식이 잘못되었습니다. " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * 진행 중인 일괄 등록
+     */
+    public Map<String, CatalogImportProgress.Snapshot> getRunning() {
+        Map<String, CatalogImportProgress.Snapshot> result = new TreeMap<>();
+        running.forEach((importId, progress) -> result.put(importId, progress.snapshot()));
+        return result;
+    }
+
+    private CatalogImportProgress.Snapshot importRecords(Iterator<CatalogRecord> records) {
+        String importId = UUID.randomUUID().toString().substring(0, 8);
+        CatalogImportProgress progress = new CatalogImportProgress(importId);
+        running.put(importId, progress);
+        try {
+            long rowNumber = 0;
+            List<CatalogRecord> chunk = new ArrayList<>(flushInterval);
+            while (records.hasNext()) {
+                CatalogRecord record = records.next();
+                record.setRowNumber(++rowNumber);
+                chunk.add(record);
+                if (chunk.size() == flushInterval) {
+                    persistChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                persistChunk(chunk, progress);
+            }
+
+            CatalogImportProgress.Snapshot result = progress.snapshot();
+            log.info("상품 일괄 등록 완료 [{}]: {}건 등록, {}건 건너뜀, {}ms ({}건/초)",
+                    importId, result.getImported(), result.getSkipped(), result.getElapsedMs(), result.getItemsPerSecond());
+            return result;
+        } finally {
+            running.remove(importId);
+        }
+    }
+
+    private void persistChunk(List<CatalogRecord> chunk, CatalogImportProgress progress) {
+        int persisted = tx.execute(status -> {
+            Session session = em.unwrap(Session.class);
+            session.setJdbcBatchSize(batchSize);
+            session.setCacheMode(CacheMode.IGNORE);
+
+            int count = 0;
+            for (CatalogRecord record : chunk) {
+                Item item;
+                try {
+                    item = record.toItem();
+                } catch (IllegalArgumentException e) {
+                    progress.skipped(record, e.getMessage());
+                    continue;
+                }
+                em.persist(item);
+                count++;
+            }
+            em.flush();
+            em.clear();
+            return count;
+        });
+        progress.imported(persisted);
+
+        CatalogImportProgress.Snapshot snapshot = progress.snapshot();
+        log.info("상품 일괄 등록 진행 [{}]: {}건 등록 ({}건/초)", snapshot.getImportId(), snapshot.getImported(), snapshot.getItemsPerSecond());
+    }
+}
@@ -0,0 +1,93 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.Movie;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.util.StringUtils;
+
+/**
+ * 상품 일괄 등록 1건(CSV 1줄 또는 JSON 객체 1개)
+ * type: B(Book), A(Album), M(Movie) - item.dtype 값과 같다.
+ */
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogRecord {
+
+    private long rowNumber;     //  입력에서 몇번째 상품인지(오류 메시지용)
+
+    private String type;
+    private String name;
+    private Integer price;
+    private Integer stockQuantity;
+
+    private String author;      //  Book
+    private String isbn;
+    private String artist;      //  Album
+    private String etc;
+    private String director;    //  Movie
+    private String actor;
+
+    @JsonIgnore
+    private String invalidReason;   //  입력 형식 오류(등록하지 않고 건너뛴다)
+
+    /**
+     * 읽는 도중 형식 오류가 난 상품
+     */
+    static CatalogRecord invalid(String reason) {
+        CatalogRecord record = new CatalogRecord();
+        record.invalidReason = reason;
+        return record;
+    }
+
+    /**
+     * @throws IllegalArgumentException 필수 값이 없거나 잘못된 경우
+     */
+    public Item toItem() {
+        if (invalidReason != null) {
+            throw new IllegalArgumentException(invalidReason);
+        }
+        if (!StringUtils.hasText(name)) {
+            throw new IllegalArgumentException("상품 이름이 없습니다.");
+        }
+        if (price == null || price < 0 || stockQuantity == null || stockQuantity < 0) {
+            throw new IllegalArgumentException("가격, 재고 수량은 0 이상이어야 합니다.");
+        }
+
+        Item item;
+        switch (type == null ? "" : type.trim().toUpperCase()) {
+            case "B":
+            case "BOOK":
+                Book book = new Book();
+                book.setAuthor(author);
+                book.setIsbn(isbn);
+                item = book;
+                break;
+            case "A":
+            case "ALBUM":
+                Album album = new Album();
+                album.setArtist(artist);
+                album.setEtc(etc);
+                item = album;
+                break;
+            case "M":
+            case "MOVIE":
+                Movie movie = new Movie();
+                movie.setDirector(director);
+                movie.setActor(actor);
+                item = movie;
+                break;
+            default:
+                throw new IllegalArgumentException("알 수 없는 상품 종류입니다. type = " + type);
+        }
+        item.setName(name);
+        item.setPrice(price);
+        item.setStockQuantity(stockQuantity);
+        return item;
+    }
+}
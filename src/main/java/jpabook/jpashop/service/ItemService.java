@@ -1,8 +1,11 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemCatalogUpdate;
 import jpabook.jpashop.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,57 @@ public class ItemService {
         itemRepository.save(item);
     }
 
+    /**
+     * 상품 수정(merge 대신 변경 감지)
+     * 2차 캐시에 있으면 select 없이 영속 상태로 가져오고, 요청에 있는 항목만 바꾼다.
+     * merge 처럼 화면에 없는 필드를 null로 덮어쓰지 않고, @DynamicUpdate로 바뀐 컬럼만 update 한다.
+     */
+    @Transactional
+    public void updateItem(ItemUpdateCommand command) {
+        Item item = itemRepository.findOne(command.getId());
+        if (item == null) {
+            throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId = " + command.getId());
+        }
+        if (command.getVersion() != null && !command.getVersion().equals(item.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, command.getId());     //  수정 화면을 연 뒤에 다른 곳에서 변경됨
+        }
+
+        if (command.getName() != null) {
+            item.setName(command.getName());
+        }
+        if (command.getPrice() != null) {
+            item.setPrice(command.getPrice());
+        }
+        if (command.getStockQuantity() != null) {
+            item.setStockQuantity(command.getStockQuantity());
+        }
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            if (command.getAuthor() != null) {
+                book.setAuthor(command.getAuthor());
+            }
+            if (command.getIsbn() != null) {
+                book.setIsbn(command.getIsbn());
+            }
+        }
+    }
+
+    /**
+     * 상품 가격/재고 일괄 변경(상품을 조회하지 않고 update batch)
+     *
+     * @return 변경된 상품 수
+     */
+    @Transactional
+    public int updateCatalog(List<ItemCatalogUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        if (updates.stream().anyMatch(update -> update.getItemId() == null)) {
+            throw new IllegalArgumentException("변경할 상품 id가 없습니다.");
+        }
+        return itemRepository.updateCatalog(updates);
+    }
+
     public List<Item> findItems() {
         return itemRepository.findAll();
     }
@@ -0,0 +1,23 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 상품 수정 요청
+ * null 인 항목은 변경하지 않는다.(author, isbn은 Book 일때만 적용)
+ */
+@Getter
+@Setter
+public class ItemUpdateCommand {
+
+    private Long id;
+    private Long version;   //  수정 화면을 연 시점의 버전(null 이면 검사하지 않음)
+
+    private String name;
+    private Integer price;
+    private Integer stockQuantity;
+
+    private String author;
+    private String isbn;
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 회원 일괄 등록 결과
+ */
+@Getter
+@AllArgsConstructor
+public class MemberImportResult {
+
+    private List<Long> ids;                 //  등록된 회원 id
+    private List<String> duplicateNames;    //  이미 존재하거나 요청 안에서 중복되어 건너뛴 이름
+}
@@ -2,12 +2,22 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryCache;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional(readOnly = true)
@@ -15,24 +25,77 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final SimpleOrderQueryCache simpleOrderQueryCache;
+
+    private static final int IMPORT_CLEAR_INTERVAL = 1000;  //  회원 N명 마다 영속성 컨텍스트 비우기
 
     /**
      * 회원 가입
+     * 이름 중복은 미리 조회하지 않고 member.name unique 제약으로 검증한다.(동시에 같은 이름으로 가입해도 1명만 성공)
      */
     @Transactional
     public Long join(Member member) {
-       validateDuplicateMember(member); //  중복회원 검증
-       memberRepository.save(member);
-       return member.getId();
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateMember(e);
+        }
+        return member.getId();
     }
 
-    private void validateDuplicateMember(Member member) {
-        //EXCEPTION
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if(!findMembers.isEmpty()) {
-            throw new IllegalStateException("이미 존재하는 회원입니다.");
+    /**
+     * 회원 일괄 등록
+     * 요청한 이름 중 이미 가입된 이름을 쿼리 1번으로 확인하고 나머지만 등록한다.(insert는 JDBC batch)
+     * 확인 후 등록 전에 다른 요청이 같은 이름으로 가입하면 unique 제약 위반으로 전체가 롤백된다.
+     */
+    @Transactional
+    public MemberImportResult joinAll(List<Member> members) {
+        Set<String> names = new HashSet<>();
+        List<String> duplicateNames = new ArrayList<>();
+        List<Member> candidates = new ArrayList<>();
+        for (Member member : members) {
+            if (names.add(member.getName())) {
+                candidates.add(member);
+            } else {
+                duplicateNames.add(member.getName());
+            }
         }
 
+        Set<String> existingNames = names.isEmpty() ? Collections.emptySet() : new HashSet<>(memberRepository.findExistingNames(names));
+
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (Member member : candidates) {
+                if (existingNames.contains(member.getName())) {
+                    duplicateNames.add(member.getName());
+                    continue;
+                }
+                memberRepository.save(member);
+                ids.add(member.getId());
+                if (ids.size() % IMPORT_CLEAR_INTERVAL == 0) {
+                    memberRepository.flushAndClear();
+                }
+            }
+            memberRepository.flushAndClear();
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateMember(e);
+        }
+        return new MemberImportResult(ids, duplicateNames);
+    }
+
+    /**
+     * member.name unique 제약 위반만 중복 회원 예외로 바꾼다.
+     * (DB마다 제약 이름을 돌려주는 방식이 달라서 제약 이름을 못 꺼내면 DB 오류 메시지에서 찾는다)
+     */
+    private RuntimeException translateDuplicateMember(DataIntegrityViolationException e) {
+        String constraintName = e.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) e.getCause()).getConstraintName()
+                : null;
+        String violated = constraintName != null ? constraintName : String.valueOf(e.getMostSpecificCause().getMessage());
+        if (violated.toLowerCase().contains(Member.NAME_UNIQUE_CONSTRAINT)) {
+            return new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        return e;
     }
 
     // 회원 전체 조회
@@ -45,9 +108,51 @@ public class MemberService {
         return memberRepository.findOne(memberId);
     }
 
+    /**
+     * @return 변경된 회원(호출한 쪽에서 다시 조회하지 않도록)
+     */
     @Transactional
-    public void update(Long id, String name) {
+    public Member update(Long id, String name) {
         Member member = memberRepository.findOne(id);
         member.setName(name);
+        return member;
+    }
+
+    /**
+     * 회원 이름 일괄 변경
+     * 엔티티를 읽지 않고 update 문을 JDBC batch로 실행한다.(엔티티 리스너를 거치지 않으므로 주문 목록 캐시도 직접 비운다)
+     *
+     * @param names member_id -> 변경할 이름
+     * @return 변경된 회원 수
+     */
+    @Transactional
+    public int updateNames(Map<Long, String> names) {
+        if (names.isEmpty()) {
+            return 0;
+        }
+        int updated;
+        try {
+            updated = memberRepository.updateNames(names);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateMember(e);
+        }
+        invalidateSimpleOrderCacheAfterCommit();
+        return updated;
+    }
+
+    /**
+     * 커밋 전에 비우면 다른 요청이 이전 이름으로 다시 캐시에 올릴 수 있으므로 커밋 후에 비운다.
+     */
+    private void invalidateSimpleOrderCacheAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            simpleOrderQueryCache.invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                simpleOrderQueryCache.invalidate();
+            }
+        });
     }
 }
@@ -0,0 +1,106 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락 충돌 재시도
+ * 트랜잭션이 커밋 시점에 버전 충돌로 실패하면 새 트랜잭션으로 처음부터 다시 실행한다.
+ * 재시도마다 대기 시간을 2배씩 늘리되 [0, 대기시간) 범위의 랜덤 값만큼만 기다려서(jitter) 충돌한 요청들이 다시 동시에 몰리지 않게 한다.
+ *
+ * 주의: 트랜잭션 바깥(@Transactional 서비스를 호출하는 쪽)에서 사용해야 한다.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetryExecutor {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public OptimisticLockRetryExecutor(@Value("${jpashop.retry.max-attempts:3}") int maxAttempts,
+                                       @Value("${jpashop.retry.backoff-ms:10}") long backoffMillis) {
+        if (backoffMillis < 0) {
+            throw new IllegalArgumentException("jpashop.retry.backoff-ms는 0 이상이어야 합니다. backoff-ms = " + backoffMillis);
+        }
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        executions.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    throw e;
+                }
+                log.debug("optimistic lock conflict, retry {}/{}", attempt, maxAttempts - 1);
+                sleep(backoffDelay(attempt));
+            }
+        }
+    }
+
+    public void execute(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public RetryStats getStats() {
+        long executions = this.executions.get();
+        long conflicts = this.conflicts.get();
+        return new RetryStats(executions, conflicts, exhausted.get(),
+                executions == 0 ? 0 : (double) conflicts / executions);
+    }
+
+    /**
+     * [1, backoffMillis * 2^(attempt-1)] 범위의 랜덤 대기 시간(backoff-ms가 0이면 기다리지 않고 바로 재시도)
+     * 시프트 결과가 long 범위를 넘으면 Long.MAX_VALUE로 자른다.
+     */
+    private long backoffDelay(int attempt) {
+        if (backoffMillis == 0) {
+            return 0;
+        }
+        int shift = attempt - 1;
+        long bound = shift >= Long.numberOfLeadingZeros(backoffMillis) ? Long.MAX_VALUE : backoffMillis << shift;
+        return ThreadLocalRandom.current().nextLong(bound) + 1;
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트 되었습니다.", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RetryStats {
+
+        private long executions;
+        private long conflicts;     //  충돌 횟수(재시도 포함)
+        private long exhausted;     //  재시도를 모두 실패한 횟수
+        private double conflictRate;    //  실행 1건당 충돌 횟수
+    }
+}
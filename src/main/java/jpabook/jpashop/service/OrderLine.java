@@ -0,0 +1,15 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 장바구니 주문의 주문상품 1줄(상품, 수량)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderLine {
+
+    private Long itemId;
+    private int count;
+}
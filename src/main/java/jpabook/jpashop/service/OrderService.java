@@ -9,11 +9,21 @@ import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchCursor;
+import jpabook.jpashop.repository.order.search.OrderListDto;
+import jpabook.jpashop.repository.order.search.OrderSearchRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 @Service
 @Transactional(readOnly = true)
@@ -21,15 +31,21 @@ import java.util.List;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderSearchRepository orderSearchRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockReservationService stockReservationService;
 
     /**
      * 주문
+     * 재고는 엔티티에서 읽고-빼고-쓰지 않고 DB에서 원자적으로 먼저 차감한다.(동시 주문 시 초과 판매 방지)
      */
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
 
+        // 재고 차감
+        stockReservationService.reserve(itemId, count);
+
         // 엔티티 조회
         Member member = memberRepository.findOne(memberId);
         Item item = itemRepository.findOne(itemId);
@@ -39,7 +55,7 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
 
         // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderITem(item, item.getPrice(), count);
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
@@ -50,6 +66,89 @@ public class OrderService {
         return order.getId();
     }
 
+    /**
+     * 장바구니 주문(주문 1건에 여러 상품)
+     * 상품은 in 쿼리 1번으로 조회하고, 배송 1건 + 주문상품 N건을 가진 주문 1건을 만든다.
+     */
+    @Transactional
+    public Long order(Long memberId, List<OrderLine> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("주문상품이 없습니다.");
+        }
+
+        // 재고 차감(상품별로 수량을 합쳐서 1번씩)
+        reserveStock(lines.stream().collect(groupingBy(OrderLine::getItemId, summingInt(OrderLine::getCount))));
+
+        // 엔티티 조회
+        Member member = memberRepository.findOne(memberId);
+        Map<Long, Item> items = itemRepository.findByIds(lines.stream().map(OrderLine::getItemId).collect(toSet()))
+                .stream().collect(toMap(Item::getId, i -> i));
+
+        // 배송정보 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        // 주문상품 생성
+        OrderItem[] orderItems = new OrderItem[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            Item item = items.get(line.getItemId());
+            if (item == null) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId = " + line.getItemId());
+            }
+            orderItems[i] = OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+        }
+
+        // 주문 생성
+        Order order = Order.createOrder(member, delivery, orderItems);
+
+        // 주문 저장(order_item insert는 batch로 나간다)
+        orderRepository.save(order);
+
+        return order.getId();
+    }
+
+    /**
+     * 대량 주문
+     * 여러 주문을 트랜잭션 1개로 저장한다.
+     * - 회원, 상품은 주문마다 조회하지 않고 in 쿼리로 한번에 조회
+     * - id는 PooledSequenceGenerator로 미리 할당되므로 커밋 시점에 order, delivery, order_item insert가 JDBC batch로 나간다.
+     */
+    @Transactional
+    public List<Long> orders(List<OrderCommand> commands) {
+        if (commands.isEmpty()) {
+            return new ArrayList<>();   //  빈 in 절 쿼리를 만들지 않도록 조회 전에 반환
+        }
+        reserveStock(commands.stream().collect(groupingBy(OrderCommand::getItemId, summingInt(OrderCommand::getCount))));
+
+        Map<Long, Member> members = memberRepository.findByIds(commands.stream().map(OrderCommand::getMemberId).collect(toSet()))
+                .stream().collect(toMap(Member::getId, m -> m));
+        Map<Long, Item> items = itemRepository.findByIds(commands.stream().map(OrderCommand::getItemId).collect(toSet()))
+                .stream().collect(toMap(Item::getId, i -> i));
+
+        List<Long> orderIds = new ArrayList<>();
+        for (OrderCommand command : commands) {
+            Member member = members.get(command.getMemberId());
+            if (member == null) {
+                throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId = " + command.getMemberId());
+            }
+            Item item = items.get(command.getItemId());
+            if (item == null) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId = " + command.getItemId());
+            }
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), command.getCount());
+            Order order = Order.createOrder(member, delivery, orderItem);
+
+            orderRepository.save(order);
+            orderIds.add(order.getId());
+        }
+        return orderIds;
+    }
+
     /**
      * 주문 취소
      */
@@ -58,12 +157,22 @@ public class OrderService {
         //주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
 
-        //주문 취소
-        order.cancel();
+        //주문 취소(재고는 DB에서 원자적으로 원복)
+        order.markCanceled();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            stockReservationService.release(orderItem.getItem().getId(), orderItem.getCount());
+        }
+    }
+
+    private void reserveStock(Map<Long, Integer> quantities) {
+        quantities.forEach(stockReservationService::reserve);
     }
 
     // 검색
-    public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAllByString(orderSearch);
+    /**
+     * 주문 목록 화면 조회(OSIV를 끄면 화면에서 엔티티 지연 로딩을 할 수 없으므로 표시할 컬럼만 DTO로 조회)
+     */
+    public List<OrderListDto> findOrderList(OrderSearch orderSearch, OrderSearchCursor cursor, int limit) {
+        return orderSearchRepository.searchOrderList(orderSearch, cursor, limit);
     }
 }
@@ -0,0 +1,58 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * oders.total_price 백필
+ * 컬럼 추가 전에 생성된 주문(total_price is null)을 chunk-size 건씩 나눠 각각 별도 트랜잭션으로 채운다.
+ * 한번에 update 하면 전체 주문 row lock을 오래 잡고 있게 되므로 order_id 순서로 조금씩 진행한다.(중간에 멈춰도 다시 실행하면 이어서 채운다)
+ * jpashop.backfill.order-total-price.enabled=true 이면 애플리케이션 시작 시 실행한다.
+ */
+@Slf4j
+@Component
+public class OrderTotalPriceBackfillJob implements ApplicationRunner {
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public OrderTotalPriceBackfillJob(OrderRepository orderRepository,
+                                      @Value("${jpashop.backfill.order-total-price.enabled:false}") boolean enabled,
+                                      @Value("${jpashop.backfill.order-total-price.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * @return 채운 주문 수
+     */
+    public int run() {
+        int filled = 0;
+        Long lastOrderId = 0L;
+        while (true) {
+            List<Long> orderIds = orderRepository.findIdsWithoutTotalPrice(lastOrderId, chunkSize);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+            filled += orderRepository.fillTotalPrice(orderIds);    //  chunk 마다 커밋
+            lastOrderId = orderIds.get(orderIds.size() - 1);
+            log.info("총 주문금액 백필 진행: {}건 (order_id <= {})", filled, lastOrderId);
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,251 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 재고 예약
+ * 기본은 주문마다 DB에서 조건부 update로 재고를 차감한다.(ItemRepository.removeStock)
+ *
+ * jpashop.stock.allotment-size > 0 이면 인기 상품의 row lock 경합을 줄이기 위해
+ * 상품별로 재고를 allotment-size 만큼 미리 DB에서 떼어와 메모리 카운터에서 차감한다.
+ * - 메모리 카운터는 compare-and-set으로만 차감하므로 0 밑으로 내려가지 않는다.(초과 판매 없음)
+ * - 떼어오기는 주문 트랜잭션 안에서 한다.(별도 트랜잭션은 커넥션이 하나 더 필요해서 동시 요청이 많으면 커넥션 풀이 고갈된다)
+ *   떼어온 수량은 커밋된 후에 메모리 카운터에 더하고(롤백되면 DB 재고가 그대로이므로 더하지 않음),
+ *   상품별로 한번에 한 트랜잭션만 떼어온다. 그동안 메모리 재고가 부족한 요청은 떼어오기가 끝날 때까지 잠시 기다린다.
+ * - 주문 트랜잭션이 롤백되면 차감한 수량을 메모리 카운터에 되돌린다.
+ * - 남은 재고가 allotment-size 보다 적으면 DB 조건부 update로 직접 차감한다.
+ * - 애플리케이션 종료 시 쓰지 않은 재고는 DB에 돌려준다.(비정상 종료 시에는 덜 팔리는 방향으로만 틀어진다)
+ * 이 모드에서는 item.stock_quantity 가 메모리에 떼어둔 수량만큼 작게 보인다.
+ */
+@Service
+@Transactional
+public class StockReservationService {
+
+    /**
+     * 다른 트랜잭션의 떼어오기를 기다리는 최대 시간
+     * 떼어오는 트랜잭션이 이 트랜잭션이 잡고 있는 다른 상품의 row lock을 기다릴 수도 있으므로 무한정 기다리지 않고 DB에서 직접 차감한다.
+     */
+    private static final long REFILL_WAIT_MILLIS = 1000;
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate requiresNewTx;
+    private final int allotmentSize;
+
+    private final Map<Long, Allotment> allotments = new ConcurrentHashMap<>();
+    private final Object directReservedKey = new Object();  //  트랜잭션 리소스 key
+
+    public StockReservationService(ItemRepository itemRepository, PlatformTransactionManager transactionManager,
+                                   @Value("${jpashop.stock.allotment-size:0}") int allotmentSize) {
+        this.itemRepository = itemRepository;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.allotmentSize = allotmentSize;
+    }
+
+    /**
+     * 재고 차감
+     */
+    public void reserve(Long itemId, int quantity) {
+        validateQuantity(quantity);
+        Set<Long> directReserved = directReservedInTransaction();
+        if (allotmentSize > 0 && !directReserved.contains(itemId) && reserveFromAllotment(itemId, quantity, directReserved)) {
+            return;
+        }
+        directReserved.add(itemId);
+        if (!itemRepository.removeStock(itemId, quantity)) {
+            throw new NotEnoughStockException("need more stock. itemId = " + itemId);
+        }
+    }
+
+    /**
+     * 재고 원복(주문 취소)
+     */
+    public void release(Long itemId, int quantity) {
+        validateQuantity(quantity);
+        itemRepository.addStock(itemId, quantity);
+    }
+
+    /**
+     * 음수 수량으로 차감하면 재고가 늘어나므로 막는다.
+     */
+    private static void validateQuantity(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("수량은 1 이상이어야 합니다. quantity = " + quantity);
+        }
+    }
+
+    private boolean reserveFromAllotment(Long itemId, int quantity, Set<Long> directReserved) {
+        Allotment allotment = allotments.computeIfAbsent(itemId, id -> new Allotment());
+        while (true) {
+            if (allotment.take(quantity)) {
+                restoreOnRollback(allotment, quantity);
+                return true;
+            }
+            if (allotment.startRefill()) {
+                break;
+            }
+            if (!allotment.awaitRefill(REFILL_WAIT_MILLIS)) {
+                return false;
+            }
+        }
+
+        //  떼어오기 권한을 얻은 뒤에도 메모리에 남은 재고가 있으면 그것부터 쓴다.
+        if (allotment.take(quantity)) {
+            allotment.finishRefill(0);
+            restoreOnRollback(allotment, quantity);
+            return true;
+        }
+
+        int refill = Math.max(allotmentSize, quantity);
+        boolean refilled;
+        try {
+            refilled = itemRepository.removeStock(itemId, refill);
+        } catch (RuntimeException e) {
+            allotment.finishRefill(0);
+            throw e;
+        }
+        if (!refilled) {
+            allotment.finishRefill(0);
+            return false;
+        }
+
+        //  이 트랜잭션이 커밋까지 row lock을 잡고 있으므로 같은 트랜잭션의 이후 차감은 DB에서 직접 한다.
+        directReserved.add(itemId);
+        int rest = refill - quantity;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            allotment.finishRefill(rest);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                allotment.finishRefill(status == STATUS_COMMITTED ? rest : 0);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 현재 트랜잭션에서 DB로 직접 차감했거나 떼어온 상품 id
+     * 이 상품들은 커밋까지 row lock을 잡고 있다. 다른 트랜잭션의 떼어오기를 기다리면 그 트랜잭션이 이 row lock을 기다리고 있을 수 있고,
+     * 이 트랜잭션이 떼어오는 중이면 자기 자신을 기다리게 되므로 메모리 재고를 쓰지 않고 DB에서 직접 차감한다.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Long> directReservedInTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        Set<Long> itemIds = (Set<Long>) TransactionSynchronizationManager.getResource(directReservedKey);
+        if (itemIds == null) {
+            itemIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(directReservedKey, itemIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(directReservedKey);
+                }
+            });
+        }
+        return itemIds;
+    }
+
+    private void restoreOnRollback(Allotment allotment, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    allotment.remaining.addAndGet(quantity);
+                }
+            }
+        });
+    }
+
+    /**
+     * 메모리에 떼어둔 재고를 DB에 돌려준다.
+     */
+    @PreDestroy
+    public void returnAllotments() {
+        allotments.forEach((itemId, allotment) -> {
+            int rest = allotment.remaining.getAndSet(0);
+            if (rest > 0) {
+                requiresNewTx.executeWithoutResult(status -> itemRepository.addStock(itemId, rest));
+            }
+        });
+    }
+
+    /**
+     * 상품 1개의 메모리 재고
+     * 떼어오기 중인지(refilling)는 모니터로 관리하고, DB 작업은 모니터 밖에서 한다.
+     */
+    private static class Allotment {
+
+        private final AtomicInteger remaining = new AtomicInteger();
+        private boolean refilling;
+
+        boolean take(int quantity) {
+            while (true) {
+                int current = remaining.get();
+                if (current < quantity) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+
+        synchronized boolean startRefill() {
+            if (refilling) {
+                return false;
+            }
+            refilling = true;
+            return true;
+        }
+
+        synchronized void finishRefill(int added) {
+            remaining.addAndGet(added);
+            refilling = false;
+            notifyAll();
+        }
+
+        /**
+         * @return 시간 안에 떼어오기가 끝나지 않으면 false
+         */
+        synchronized boolean awaitRefill(long timeoutMillis) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (refilling) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package jpabook.jpashop.sqllog;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 비동기 샘플링 SQL 로그(p6spy 이벤트 리스너)
+ * show_sql/format_sql, p6spy 로그는 모든 SQL을 요청 스레드에서 바로 포맷팅해서 출력하기 때문에 부하가 걸리면 로그 비용이 그대로 응답 시간이 된다.
+ * 요청 스레드에서는 로그할지만 판단해서 고정 크기 버퍼(ring buffer)에 넣고, 문자열 정리와 출력은 백그라운드 스레드가 한다.
+ * - slow-query-ms 이상 걸린 SQL, 실패한 SQL: 파라미터 값까지 포함한 전체 SQL을 항상 남긴다.
+ * - 나머지: sample-rate 비율만큼만 SQL 모양(파라미터 ?)과 실행 시간을 남긴다.
+ * - 버퍼가 가득 차면 기다리지 않고 버린다.(버린 건수는 다음 출력 때 경고로 남긴다)
+ */
+@Slf4j
+@Component
+public class AsyncSqlLogger extends SimpleJdbcEventListener {
+
+    private static final int DRAIN_SIZE = 256;
+    private static final int MAX_SAMPLED_SQL_LENGTH = 200;
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowQueryNanos;
+    private final BlockingQueue<SqlLogEntry> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AsyncSqlLogger(@Value("${jpashop.sql-log.enabled:true}") boolean enabled,
+                          @Value("${jpashop.sql-log.sample-rate:0.01}") double sampleRate,
+                          @Value("${jpashop.sql-log.slow-query-ms:100}") long slowQueryMs,
+                          @Value("${jpashop.sql-log.buffer-size:8192}") int bufferSize) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "sql-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!running) {
+            return;
+        }
+
+        SqlLogEntry entry;
+        if (e != null || timeElapsedNanos >= slowQueryNanos) {
+            entry = new SqlLogEntry(statementInformation.getSqlWithValues(), timeElapsedNanos, true, e);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            entry = new SqlLogEntry(statementInformation.getSql(), timeElapsedNanos, false, null);
+        } else {
+            return;
+        }
+
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        List<SqlLogEntry> batch = new ArrayList<>(DRAIN_SIZE);
+        while (running || !buffer.isEmpty()) {
+            try {
+                SqlLogEntry first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, DRAIN_SIZE - 1);
+                batch.forEach(this::write);
+                batch.clear();
+
+                long droppedCount = dropped.getAndSet(0);
+                if (droppedCount > 0) {
+                    log.warn("SQL 로그 버퍼가 가득 차서 {}건을 버렸습니다.", droppedCount);
+                }
+            } catch (InterruptedException ex) {
+                //  shutdown(): 남은 로그를 모두 출력할 때까지 반복
+            } catch (RuntimeException ex) {     //  로그 출력 실패로 writer 스레드가 죽지 않도록
+                log.error("SQL 로그 출력 실패", ex);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(SqlLogEntry entry) {
+        double elapsedMs = entry.elapsedNanos / 1_000_000.0;
+        String sql = entry.sql == null ? "" : entry.sql.trim().replaceAll("\\s+", " ");
+        if (entry.error != null) {
+            log.warn("[SQL 실패] {}ms {} - {}", String.format("%.2f", elapsedMs), sql, entry.error.getMessage());
+        } else if (entry.slow) {
+            log.warn("[SLOW SQL] {}ms {}", String.format("%.2f", elapsedMs), sql);
+        } else if (log.isInfoEnabled()) {
+            log.info("[SQL 샘플] {}ms {}", String.format("%.2f", elapsedMs),
+                    sql.length() > MAX_SAMPLED_SQL_LENGTH ? sql.substring(0, MAX_SAMPLED_SQL_LENGTH) + "..." : sql);
+        }
+    }
+
+    /**
+     * 종료 시 버퍼에 남은 로그는 출력하고 끝낸다.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private static class SqlLogEntry {
+
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final SQLException error;
+
+        SqlLogEntry(String sql, long elapsedNanos, boolean slow, SQLException error) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package jpabook.jpashop.api;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 잘못된 요청 값은 400으로 응답한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class ApiValidationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void 상품_일괄변경_정상_요청() throws Exception {
+        mockMvc.perform(patch("/api/v1/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"itemId\":-1,\"price\":1000}]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 상품_일괄변경_상품id_없음() throws Exception {
+        mockMvc.perform(patch("/api/v1/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"price\":1000}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 상품_일괄변경_음수_재고() throws Exception {
+        mockMvc.perform(patch("/api/v1/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"itemId\":1,\"stockQuantity\":-1}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 주문_keyset_조회_limit_범위() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 주문_keyset_조회_잘못된_cursor() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 주문_검색_잘못된_cursor() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/search").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/orders/search")    //  orderDate 없는 cursor 로 최신 주문 순 조회
+                        .param("sort", "ORDER_DATE_DESC")
+                        .param("cursor", "MQ"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 주문_검색_빈_정렬은_기본_정렬() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/search")
+                        .param("sort", "")
+                        .param("memberNameMatch", "")
+                        .param("memberName", "회원")
+                        .param("cursor", "MQ"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 주문_검색_limit_0() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/search").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 회원_keyset_조회_limit_범위() throws Exception {
+        mockMvc.perform(get("/api/v3/members").param("limit", "1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v3/members").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3/members").param("limit", "-5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 대량주문_빈_요청() throws Exception {
+        mockMvc.perform(post("/api/v1/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 대량주문_수량_0() throws Exception {
+        mockMvc.perform(post("/api/v1/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"memberId\":1,\"itemId\":1,\"count\":0}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 대량주문_상품id_없음() throws Exception {
+        mockMvc.perform(post("/api/v1/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"memberId\":1,\"count\":1}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 장바구니주문_상품_없음() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\":1,\"lines\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 장바구니주문_수량_음수() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\":1,\"lines\":[{\"itemId\":1,\"count\":-1}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 회원_일괄등록_정상_요청() throws Exception {
+        mockMvc.perform(post("/api/v2/members/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"일괄회원1\"},{\"name\":\"일괄회원2\"}]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 회원_일괄등록_이름_없음() throws Exception {
+        mockMvc.perform(post("/api/v2/members/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"일괄회원1\"},{\"name\":\" \"},{}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 회원_일괄등록_최대_건수_초과() throws Exception {
+        String requests = "[" + String.join(",", Collections.nCopies(MemberApiContoller.MAX_BULK_SIZE + 1, "{\"name\":\"회원\"}")) + "]";
+        mockMvc.perform(post("/api/v2/members/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requests))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 회원_이름_일괄변경_정상_요청() throws Exception {
+        mockMvc.perform(put("/api/v2/members")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":-1,\"name\":\"새이름\"}]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 회원_이름_일괄변경_회원id_없음() throws Exception {
+        mockMvc.perform(put("/api/v2/members")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"새이름\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 회원_이름_일괄변경_이름_없음() throws Exception {
+        mockMvc.perform(put("/api/v2/members")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"name\":\"\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+}
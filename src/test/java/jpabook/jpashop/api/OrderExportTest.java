@@ -0,0 +1,85 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 주문 NDJSON 내보내기는 별도 스레드에서 스트리밍하므로 커밋된 데이터(InitDb)로 검증한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderExportTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 주문_NDJSON_내보내기() throws Exception {
+        //when
+        MvcResult started = mockMvc.perform(get("/api/v6/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        //then
+        String[] lines = body.split("\n");
+        Long orderCount = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+        Assert.assertEquals("주문 1건이 한 줄이어야 한다.", orderCount.intValue(), lines.length);
+
+        long previousOrderId = 0;
+        JsonNode jpaBookOrder = null;
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            long orderId = order.get("orderId").asLong();
+            Assert.assertTrue("order id 순으로 내보내야 한다.", orderId > previousOrderId);
+            previousOrderId = orderId;
+            Assert.assertTrue("주문상품이 주문에 묶여 있어야 한다.", order.get("orderItems").size() > 0);
+            if (itemCounts(order).containsKey("JPA1 BOOK")) {
+                jpaBookOrder = order;
+            }
+        }
+
+        Assert.assertNotNull(jpaBookOrder);
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("JPA1 BOOK", 1);
+        expected.put("JPA2 BOOK", 2);
+        Assert.assertEquals("InitDb 주문의 주문상품(상품명, 수량)", expected, itemCounts(jpaBookOrder));
+    }
+
+    private Map<String, Integer> itemCounts(JsonNode order) {
+        Map<String, Integer> counts = new HashMap<>();
+        order.get("orderItems").forEach(item -> counts.put(item.get("itemName").asText(), item.get("count").asInt()));
+        return counts;
+    }
+}
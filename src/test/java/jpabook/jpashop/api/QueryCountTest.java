@@ -0,0 +1,99 @@
+package jpabook.jpashop.api;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.querycount.QueryCountFilter;
+import jpabook.jpashop.querycount.QueryCountRegistry;
+import jpabook.jpashop.querycount.QueryCountResponseAdvice;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @QueryBudget 이 선언된 API는 예산을 넘으면 QueryBudgetExceededException 으로 실패한다.(test application.yml)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class QueryCountTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    QueryCountRegistry queryCountRegistry;
+
+    @Autowired
+    QueryCountFilter queryCountFilter;
+
+    @Test
+    public void 심플주문_페치조인_조회는_쿼리_1번() throws Exception {
+        mockMvc.perform(get("/api/v3/simple-orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountResponseAdvice.QUERY_COUNT_HEADER, "1"));
+    }
+
+    @Test
+    public void 주문_flat_조회는_쿼리_2번() throws Exception {
+        mockMvc.perform(get("/api/v6/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountResponseAdvice.QUERY_COUNT_HEADER, "2"));
+    }
+
+    @Test
+    public void 주문목록_화면은_쿼리_1번() throws Exception {
+        mockMvc.perform(get("/orders").param("limit", "1"))   //  예산 초과 시 필터에서 예외 발생
+                .andExpect(status().isOk())
+                .andExpect(model().attributeExists("orders", "next"));
+    }
+
+    @Test
+    public void 엔드포인트별_쿼리수_메트릭() throws Exception {
+        mockMvc.perform(get("/api/v6/orders"))
+                .andExpect(status().isOk());
+
+        DistributionSummary queries = meterRegistry.find("jpashop.request.queries")
+                .tag("endpoint", "GET /api/v6/orders")
+                .summary();
+        Assert.assertNotNull(queries);
+        Assert.assertTrue(queries.count() >= 1);
+        Assert.assertEquals(2.0, queries.max(), 0.0);
+    }
+
+    @Test
+    public void 회원_keyset_페이지_조회는_쿼리_1번() throws Exception {
+        mockMvc.perform(get("/api/v3/members").param("lastMemberId", "0").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountResponseAdvice.QUERY_COUNT_HEADER, "1"));
+    }
+
+    @Test
+    public void 매핑_안된_요청은_하나로_집계() throws Exception {
+        //  핸들러 매핑을 거치지 않은 요청(매핑 패턴 없음)
+        queryCountFilter.doFilter(new MockHttpServletRequest("GET", "/no-such-page-1"), new MockHttpServletResponse(), new MockFilterChain());
+        queryCountFilter.doFilter(new MockHttpServletRequest("POST", "/no-such-page-2"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Map<String, QueryCountRegistry.EndpointStatsDto> stats = queryCountRegistry.getStats();
+        Assert.assertTrue(stats.containsKey("UNMAPPED"));
+        Assert.assertTrue("요청 URI 별로 통계를 만들지 않는다.",
+                stats.keySet().stream().noneMatch(endpoint -> endpoint.contains("/no-such-page")));
+    }
+}
@@ -0,0 +1,78 @@
+package jpabook.jpashop.controller;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.OrderService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class OrderControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 주문목록_다음_링크에_검색조건_유지() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "경기", "123-123"));
+        em.persist(member);
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        orderService.order(member.getId(), book.getId(), 1);
+        orderService.order(member.getId(), book.getId(), 1);
+        em.flush();
+        em.clear();
+
+        //when
+        String html = mockMvc.perform(get("/orders")
+                        .param("memberName", "회원")
+                        .param("sort", "ORDER_DATE_DESC")
+                        .param("totalPriceMin", "1000")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //then
+        Assert.assertTrue("다음 페이지도 같은 정렬로 조회해야 한다.", html.contains("sort=ORDER_DATE_DESC"));
+        Assert.assertTrue(html.contains("totalPriceMin=1000"));
+        Assert.assertTrue(html.contains("limit=1"));
+    }
+
+    @Test
+    public void 주문목록_limit_범위_밖() throws Exception {
+        mockMvc.perform(get("/orders").param("limit", "0"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("order/orderList"));
+        mockMvc.perform(get("/orders").param("limit", "-1"))
+                .andExpect(status().isOk());
+    }
+}
@@ -3,7 +3,9 @@ package jpabook.jpashop.domain;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.OrderLine;
 import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.OrderTotalPriceBackfillJob;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,6 +15,8 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -28,6 +32,9 @@ public class OrderTest {
     @Autowired
     OrderRepository orderRepository;
 
+    @Autowired
+    OrderTotalPriceBackfillJob orderTotalPriceBackfillJob;
+
     @Test
     public void 상문주문() throws Exception {
         //given
@@ -47,6 +54,41 @@ public class OrderTest {
         Assert.assertEquals("주문 수량만큼 재고가 줄어야 한다.", 8 , book.getStockQuantity());
     }
 
+    @Test
+    public void 장바구니주문() throws Exception {
+        //given
+        Member member = createMember("회원1");
+        Book book1 = createBook("시골 JPA", 10000, 10);
+        Book book2 = createBook("토비의 스프링", 20000, 10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), Arrays.asList(
+                new OrderLine(book1.getId(), 2),
+                new OrderLine(book2.getId(), 3)));
+
+        //then
+        Order getOrder = orderRepository.findOne(orderId);
+        Assert.assertEquals("상품 주문시 상태는 ORDER", OrderStatus.ORDER, getOrder.getStatus());
+        Assert.assertEquals("주문 1건에 주문상품이 모두 담겨야 한다.", 2, getOrder.getOrderItems().size());
+        Assert.assertEquals("주문 가격은 상품별 가격 * 수량의 합이다.", 10000 * 2 + 20000 * 3, getOrder.getTotalPrice());
+        Assert.assertEquals("주문 수량만큼 재고가 줄어야 한다.", 8, book1.getStockQuantity());
+        Assert.assertEquals("주문 수량만큼 재고가 줄어야 한다.", 7, book2.getStockQuantity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 장바구니주문_상품_없음() throws Exception {
+        Member member = createMember("회원1");
+
+        orderService.order(member.getId(), new ArrayList<>());
+
+        Assert.fail("주문상품이 없으면 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void 대량주문_빈_요청() throws Exception {
+        Assert.assertTrue("주문할 것이 없으면 빈 목록을 반환한다.", orderService.orders(new ArrayList<>()).isEmpty());
+    }
+
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name);
@@ -56,6 +98,29 @@ public class OrderTest {
         return book;
     }
 
+    @Test
+    public void 총주문금액_백필() throws Exception {
+        //given
+        Member member = createMember("회원1");
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+        em.flush();
+        em.createNativeQuery("update oders set total_price = null where order_id = :orderId")
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+        em.clear();
+
+        //when
+        int filled = orderTotalPriceBackfillJob.run();
+
+        //then
+        Integer totalPrice = em.createQuery("select o.totalPrice from Order o where o.id = :orderId", Integer.class)
+                .setParameter("orderId", orderId)
+                .getSingleResult();
+        Assert.assertTrue(filled >= 1);
+        Assert.assertEquals("주문상품 합계로 채워야 한다.", Integer.valueOf(10000 * 3), totalPrice);
+    }
+
     private Member createMember(String name) {
         Member member = new Member();
         member.setName(name);
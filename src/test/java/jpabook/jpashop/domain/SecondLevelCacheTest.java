@@ -0,0 +1,76 @@
+package jpabook.jpashop.domain;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jpabook.jpashop.domain.item.Book;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.spi.support.DomainDataRegionTemplate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.OptionalLong;
+
+/**
+ * 2차 캐시(Caffeine JCache) 설정 테스트
+ * 2차 캐시에는 커밋된 엔티티만 들어가므로 테스트 트랜잭션(@Transactional)을 쓰지 않고 직접 커밋한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void region별_설정_적용() throws Exception {
+        Assert.assertEquals(OptionalLong.of(100000), configuration("member").getMaximumSize());
+        Assert.assertEquals(OptionalLong.of(100000), configuration("item").getMaximumSize());
+        Assert.assertEquals(OptionalLong.of(1000), configuration("category").getMaximumSize());
+    }
+
+    @Test
+    public void 커밋된_엔티티는_2차캐시에서_조회() throws Exception {
+        //given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long bookId = tx.execute(status -> {
+            Book book = new Book();
+            book.setName("시골 JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+
+        try {
+            //when
+            tx.executeWithoutResult(status -> em.find(Book.class, bookId));
+
+            //then
+            Assert.assertTrue(emf.getCache().contains(Book.class, bookId));
+        } finally {
+            tx.executeWithoutResult(status -> em.remove(em.find(Book.class, bookId)));
+        }
+    }
+
+    private CaffeineConfiguration<?, ?> configuration(String regionName) {
+        DomainDataRegionTemplate region = (DomainDataRegionTemplate) emf.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegion(regionName);
+        Cache<?, ?> cache = ((JCacheAccessImpl) region.getCacheStorageAccess()).getUnderlyingCache();
+        return cache.getConfiguration(CaffeineConfiguration.class);
+    }
+}
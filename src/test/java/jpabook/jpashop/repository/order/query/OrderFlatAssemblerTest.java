@@ -0,0 +1,63 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+public class OrderFlatAssemblerTest {
+
+    @Test
+    public void 주문단위_조립() throws Exception {
+        //given
+        List<OrderFlatDto> rows = Arrays.asList(
+                row(3L, "JPA1 BOOK"), row(3L, "JPA2 BOOK"),
+                row(1L, "SPRING1 BOOK"),
+                row(2L, "SPRING2 BOOK"), row(2L, "SPRING3 BOOK"), row(2L, "SPRING4 BOOK"));
+
+        //when
+        List<OrderQueryDto> result = OrderFlatAssembler.assemble(rows);
+
+        //then
+        Assert.assertEquals("주문 수만큼 조립되어야 한다.", 3, result.size());
+        Assert.assertEquals("row 순서가 유지되어야 한다.", Long.valueOf(3L), result.get(0).getOrderId());
+        Assert.assertEquals(Long.valueOf(1L), result.get(1).getOrderId());
+        Assert.assertEquals(Long.valueOf(2L), result.get(2).getOrderId());
+        Assert.assertEquals("주문상품이 주문별로 묶여야 한다.", 2, result.get(0).getOrderItems().size());
+        Assert.assertEquals(3, result.get(2).getOrderItems().size());
+        Assert.assertEquals("SPRING4 BOOK", result.get(2).getOrderItems().get(2).getItemName());
+    }
+
+    @Test
+    public void 주문단위_페이징() throws Exception {
+        //given
+        List<OrderFlatDto> rows = Arrays.asList(
+                row(1L, "A"), row(1L, "B"),
+                row(2L, "C"),
+                row(3L, "D"), row(3L, "E"),
+                row(4L, "F"));
+
+        //when
+        List<OrderQueryDto> result = OrderFlatAssembler.assemble(rows, 1, 2);
+
+        //then
+        Assert.assertEquals("limit 만큼의 주문만 조립되어야 한다.", 2, result.size());
+        Assert.assertEquals("offset 만큼의 주문을 건너뛰어야 한다.", Long.valueOf(2L), result.get(0).getOrderId());
+        Assert.assertEquals(Long.valueOf(3L), result.get(1).getOrderId());
+        Assert.assertEquals(2, result.get(1).getOrderItems().size());
+    }
+
+    @Test
+    public void 빈_결과() throws Exception {
+        Assert.assertTrue(OrderFlatAssembler.assemble(Arrays.asList()).isEmpty());
+    }
+
+    private OrderFlatDto row(Long orderId, String itemName) {
+        return new OrderFlatDto(orderId, "userA", LocalDateTime.now(), OrderStatus.ORDER,
+                new Address("서울", "1", "111"), itemName, 10000, 1);
+    }
+}
@@ -0,0 +1,39 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+public class OrderItemChunkLoaderTest {
+
+    @Test
+    public void in절_분할_및_패딩() throws Exception {
+        //given
+        List<Long> ids = LongStream.rangeClosed(1, 21).boxed().collect(Collectors.toList());
+
+        //when
+        List<List<Long>> chunks = OrderItemChunkLoader.split(ids, 8);
+
+        //then
+        Assert.assertEquals("8, 8, 5(->8) 로 나뉘어야 한다.", 3, chunks.size());
+        Assert.assertEquals(8, chunks.get(0).size());
+        Assert.assertEquals(8, chunks.get(1).size());
+        Assert.assertEquals("마지막 묶음은 2의 거듭제곱 크기로 채워야 한다.", 8, chunks.get(2).size());
+        Assert.assertEquals("채운 자리는 마지막 id 이다.", Long.valueOf(21L), chunks.get(2).get(7));
+        Assert.assertEquals("모든 id가 포함되어야 한다.", ids,
+                chunks.stream().flatMap(List::stream).distinct().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void 크기가_2의_거듭제곱이면_패딩하지_않는다() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 4).boxed().collect(Collectors.toList());
+
+        List<List<Long>> chunks = OrderItemChunkLoader.split(ids, 8);
+
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertEquals(ids, chunks.get(0));
+    }
+}
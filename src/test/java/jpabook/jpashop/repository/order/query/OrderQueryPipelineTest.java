@@ -0,0 +1,76 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 파이프라인 단계는 별도 스레드의 읽기 전용 트랜잭션에서 실행되므로 커밋된 데이터(InitDb)로 검증한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderQueryPipelineTest {
+
+    @Autowired
+    OrderQueryPipeline orderQueryPipeline;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void 페이지_단위_파이프라인_조회() throws Exception {
+        //given
+        List<OrderQueryDto> expected = orderQueryRepository.findAllByDto_opmization();
+        Map<String, OrderQueryPipeline.StageLatencyDto> before = orderQueryPipeline.getStageLatencies();
+
+        //when
+        List<OrderQueryDto> result = orderQueryPipeline.findAll(1);    //  주문 1건씩 페이지로 나눠서 단계를 겹친다.
+
+        //then
+        Assert.assertTrue(expected.size() >= 2);
+        Assert.assertEquals("한번에 조회한 결과와 같아야 한다.", orderItems(expected), orderItems(result));
+        Assert.assertEquals("order id 순으로 조회해야 한다.",
+                result.stream().map(OrderQueryDto::getOrderId).sorted().collect(Collectors.toList()),
+                result.stream().map(OrderQueryDto::getOrderId).collect(Collectors.toList()));
+
+        Map<String, OrderQueryPipeline.StageLatencyDto> after = orderQueryPipeline.getStageLatencies();
+        Assert.assertEquals("페이지마다 주문상품 조회 1번",
+                result.size(), after.get("items").getCount() - before.get("items").getCount());
+        Assert.assertEquals("마지막 빈 페이지 확인까지 루트 조회",
+                result.size() + 1, after.get("root").getCount() - before.get("root").getCount());
+    }
+
+    @Test
+    public void 단계별_실행시간_조회() throws Exception {
+        orderQueryPipeline.findAll(100);
+
+        mockMvc.perform(get("/api/v5.1/orders/stages"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.root.count").isNumber())
+                .andExpect(jsonPath("$.data.items.count").isNumber())
+                .andExpect(jsonPath("$.data.items.maxMs").isNumber());
+    }
+
+    private Map<Long, Set<OrderItemQueryDto>> orderItems(List<OrderQueryDto> orders) {
+        return orders.stream().collect(Collectors.toMap(OrderQueryDto::getOrderId, o -> new HashSet<>(o.getOrderItems())));
+    }
+}
@@ -0,0 +1,161 @@
+package jpabook.jpashop.repository.order.search;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.MemberNameMatch;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchCursor;
+import jpabook.jpashop.repository.OrderSearchSort;
+import jpabook.jpashop.service.OrderService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderSearchRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderSearchRepository orderSearchRepository;
+
+    @Test
+    public void 회원이름_앞부분_일치_검색() throws Exception {
+        //given
+        Long kimOrderId = order(createMember("search_kim"));
+        order(createMember("search_lee"));
+        order(createMember("xsearch_kim"));
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("search_k");
+
+        //when
+        List<OrderSearchDto> result = orderSearchRepository.search(orderSearch, OrderSearchCursor.first(), 100);
+
+        //then
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(kimOrderId, result.get(0).getOrderId());
+    }
+
+    @Test
+    public void 검색어의_와일드카드는_문자_그대로_검색() throws Exception {
+        //given
+        Long percentOrderId = order(createMember("50%_할인회원"));
+        order(createMember("50원_할인회원"));
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("50%_");
+        orderSearch.setMemberNameMatch(MemberNameMatch.CONTAINS);
+
+        //when
+        List<OrderSearchDto> result = orderSearchRepository.search(orderSearch, OrderSearchCursor.first(), 100);
+
+        //then
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(percentOrderId, result.get(0).getOrderId());
+    }
+
+    @Test
+    public void 최신순_keyset_페이징() throws Exception {
+        //given
+        Member member = createMember("search_page");
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(order(member));
+        }
+        orderService.cancelOrder(orderIds.get(0));
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("search_page");
+        orderSearch.setOrderStatus(OrderStatus.ORDER);
+        orderSearch.setSort(OrderSearchSort.ORDER_DATE_DESC);
+
+        //when
+        List<Long> pages = new ArrayList<>();
+        OrderSearchCursor cursor = OrderSearchCursor.first();
+        List<OrderSearchDto> page;
+        do {
+            page = orderSearchRepository.search(orderSearch, cursor, 2);
+            page.forEach(o -> pages.add(o.getOrderId()));
+            if (!page.isEmpty()) {
+                OrderSearchDto last = page.get(page.size() - 1);
+                cursor = OrderSearchCursor.decode(OrderSearchCursor.after(last.getOrderId(), last.getOrderDate()).encode());
+            }
+        } while (page.size() == 2);
+
+        //then
+        List<Long> expected = orderIds.subList(1, 5).stream()
+                .sorted((a, b) -> Long.compare(b, a))
+                .collect(Collectors.toList());
+        Assert.assertEquals("취소된 주문을 빼고 최신 주문부터 중복/누락 없이 조회해야 한다.", expected, pages);
+    }
+
+    @Test
+    public void 상품_금액_기간_조건_검색과_건수() throws Exception {
+        //given
+        Member member = createMember("search_filter");
+        Long cheapOrderId = order(member, "필터 JPA", 10000, 1);
+        Long expensiveOrderId = order(member, "필터 JPA", 10000, 3);
+        order(member, "다른 상품", 10000, 3);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("search_filter");
+        orderSearch.setItemName("필터");
+        orderSearch.setTotalPriceMin(20000);
+        orderSearch.setOrderDateFrom(LocalDateTime.now().minusDays(1));
+        orderSearch.setOrderDateTo(LocalDateTime.now().plusDays(1));
+
+        //when
+        List<OrderSearchDto> result = orderSearchRepository.search(orderSearch, OrderSearchCursor.first(), 100);
+        long count = orderSearchRepository.count(orderSearch);
+
+        //then
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(expensiveOrderId, result.get(0).getOrderId());
+        Assert.assertEquals("건수 조회도 같은 조건을 사용해야 한다.", 1L, count);
+
+        orderSearch.setTotalPriceMin(null);
+        orderSearch.setTotalPriceMax(10000);
+        Assert.assertEquals(cheapOrderId, orderSearchRepository.search(orderSearch, OrderSearchCursor.first(), 100).get(0).getOrderId());
+        Assert.assertEquals(1L, orderSearchRepository.count(orderSearch));
+    }
+
+    private Long order(Member member) {
+        return order(member, "검색 JPA", 10000, 1);
+    }
+
+    private Long order(Member member, String itemName, int price, int count) {
+        Book book = new Book();
+        book.setName(itemName);
+        book.setPrice(price);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return orderService.order(member.getId(), book.getId(), count);
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "경기", "123-123"));
+        em.persist(member);
+        return member;
+    }
+}
@@ -0,0 +1,99 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.Movie;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class CatalogImportServiceTest {
+
+    @Autowired
+    CatalogImportService catalogImportService;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void CSV_상품_일괄등록() throws Exception {
+        //given
+        String csv = "type,name,price,stock_quantity,author,isbn,artist,etc,director,actor\n" +
+                "B,\"JPA, 시골\",10000,10,김영한,1234,,,,\n" +
+                "A,앨범,20000,5,,,아이유,\"\"\"좋은 날\"\"\",,\n" +
+                "M,영화,15000,3,,,,,봉준호,송강호\n" +
+                "X,모르는 상품,1000,1,,,,,,\n" +
+                "B,가격 없음,,1,,,,,,\n";
+
+        //when
+        CatalogImportProgress.Snapshot result = catalogImportService.importCsv(stream(csv));
+
+        //then
+        Assert.assertEquals(3, result.getImported());
+        Assert.assertEquals("잘못된 상품은 건너뛴다.", 2, result.getSkipped());
+        Assert.assertTrue(result.getErrors().get(0).startsWith("4번째 상품"));
+
+        Book book = findByName(Book.class, "JPA, 시골");
+        Assert.assertEquals("김영한", book.getAuthor());
+        Assert.assertEquals(10, book.getStockQuantity());
+        Assert.assertEquals("\"좋은 날\"", findByName(Album.class, "앨범").getEtc());
+        Assert.assertEquals("송강호", findByName(Movie.class, "영화").getActor());
+    }
+
+    @Test
+    public void JSON_상품_일괄등록() throws Exception {
+        //given
+        String json = "[{\"type\":\"BOOK\",\"name\":\"책\",\"price\":10000,\"stockQuantity\":10,\"isbn\":\"1234\"}," +
+                "{\"type\":\"M\",\"name\":\"영화\",\"price\":15000,\"stockQuantity\":3,\"director\":\"봉준호\"}]";
+
+        //when
+        CatalogImportProgress.Snapshot result = catalogImportService.importJson(stream(json));
+
+        //then
+        Assert.assertEquals(2, result.getImported());
+        Assert.assertEquals("1234", findByName(Book.class, "책").getIsbn());
+        Assert.assertEquals("봉준호", findByName(Movie.class, "영화").getDirector());
+    }
+
+    @Test
+    public void JSON_형식이_잘못된_상품은_건너뜀() throws Exception {
+        //given
+        String json = "{\"type\":\"B\",\"name\":\"책\",\"price\":10000,\"stockQuantity\":10}\n" +
+                "{\"type\":\"B\",\"name\":\"가격 오류\",\"price\":\"abc\",\"stockQuantity\":10}\n" +
+                "{\"type\":\"A\",\"name\":\"앨범\",\"price\":20000,\"stockQuantity\":5}\n";
+
+        //when
+        CatalogImportProgress.Snapshot result = catalogImportService.importJson(stream(json));
+
+        //then
+        Assert.assertEquals(2, result.getImported());
+        Assert.assertEquals(1, result.getSkipped());
+        Assert.assertTrue(result.getErrors().get(0).startsWith("2번째 상품"));
+        findByName(Album.class, "앨범");
+    }
+
+    private <T extends Item> T findByName(Class<T> type, String name) {
+        List<T> items = em.createQuery("select i from " + type.getSimpleName() + " i where i.name = :name", type)
+                .setParameter("name", name)
+                .getResultList();
+        Assert.assertEquals(1, items.size());
+        return items.get(0);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemCatalogUpdate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class ItemServiceTest {
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 상품_부분수정() throws Exception {
+        //given
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        ItemUpdateCommand command = new ItemUpdateCommand();
+        command.setId(book.getId());
+        command.setVersion(book.getVersion());
+        command.setPrice(12000);
+
+        //when
+        itemService.updateItem(command);
+        em.flush();
+        em.clear();
+
+        //then
+        Book findBook = em.find(Book.class, book.getId());
+        Assert.assertEquals(12000, findBook.getPrice());
+        Assert.assertEquals("요청에 없는 항목은 그대로 둔다.", "시골 JPA", findBook.getName());
+        Assert.assertEquals("김영한", findBook.getAuthor());
+        Assert.assertEquals(10, findBook.getStockQuantity());
+    }
+
+    @Test(expected = ObjectOptimisticLockingFailureException.class)
+    public void 상품_수정_버전_불일치() throws Exception {
+        //given
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        ItemUpdateCommand command = new ItemUpdateCommand();
+        command.setId(book.getId());
+        command.setVersion(book.getVersion() + 1);
+        command.setPrice(12000);
+
+        //when
+        itemService.updateItem(command);
+
+        //then
+        Assert.fail("수정 화면을 연 뒤 변경된 상품은 수정할 수 없어야 한다.");
+    }
+
+    @Test
+    public void 가격_재고_일괄변경() throws Exception {
+        //given
+        Book book1 = createBook("JPA1 BOOK", 10000, 10);
+        Book book2 = createBook("JPA2 BOOK", 20000, 20);
+
+        //when
+        int updated = itemService.updateCatalog(Arrays.asList(
+                new ItemCatalogUpdate(book1.getId(), 11000, null),
+                new ItemCatalogUpdate(book2.getId(), null, 5)));
+
+        //then
+        Assert.assertEquals(2, updated);
+        Assert.assertEquals("영속성 컨텍스트의 상품도 변경된 값이어야 한다.", 11000, book1.getPrice());
+        Assert.assertEquals(10, book1.getStockQuantity());
+        Assert.assertEquals(20000, book2.getPrice());
+        Assert.assertEquals(5, book2.getStockQuantity());
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        book.setAuthor("김영한");
+        em.persist(book);
+        em.flush();
+        return book;
+    }
+}
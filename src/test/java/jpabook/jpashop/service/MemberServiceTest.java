@@ -12,6 +12,11 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -60,4 +65,49 @@ public class MemberServiceTest {
         //then
         Assert.fail("예외가 발생해야 한다.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 회원_일괄등록_중복_이름은_건너뛴다() throws Exception {
+        //given
+        Member existing = new Member();
+        existing.setName("bulk_kim");
+        memberService.join(existing);
+
+        List<Member> members = Arrays.asList(member("bulk_kim"), member("bulk_lee"), member("bulk_lee"), member("bulk_park"));
+
+        //when
+        MemberImportResult result = memberService.joinAll(members);
+
+        //then
+        Assert.assertEquals(2, result.getIds().size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("bulk_kim", "bulk_lee")), new HashSet<>(result.getDuplicateNames()));
+        Assert.assertNotNull(memberRepository.findOne(result.getIds().get(1)));
+    }
+
+    @Test
+    public void 회원_이름_일괄변경() throws Exception {
+        //given
+        Member member1 = member("rename_kim");
+        Member member2 = member("rename_lee");
+        memberService.join(member1);
+        memberService.join(member2);
+
+        Map<Long, String> names = new HashMap<>();
+        names.put(member1.getId(), "rename_kim2");
+        names.put(member2.getId(), "rename_lee2");
+
+        //when
+        int updated = memberService.updateNames(names);
+
+        //then
+        Assert.assertEquals(2, updated);
+        Assert.assertEquals("영속성 컨텍스트의 회원도 변경된 이름이어야 한다.", "rename_kim2", memberRepository.findOne(member1.getId()).getName());
+        Assert.assertEquals("rename_lee2", member2.getName());
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        return member;
+    }
+}
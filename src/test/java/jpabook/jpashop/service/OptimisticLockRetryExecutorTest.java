@@ -0,0 +1,96 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Book;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 버전 충돌은 커밋 시점에 나므로 테스트 트랜잭션(@Transactional)을 쓰지 않고 직접 커밋한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OptimisticLockRetryExecutorTest {
+
+    @Autowired
+    OptimisticLockRetryExecutor retryExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 버전_충돌시_새_트랜잭션으로_재시도() throws Exception {
+        //given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrentTx = new TransactionTemplate(transactionManager);
+        concurrentTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long itemId = tx.execute(status -> {
+            Book book = new Book();
+            book.setName("시골 JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+        long conflicts = retryExecutor.getStats().getConflicts();
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            //when
+            retryExecutor.execute(() -> tx.executeWithoutResult(status -> {
+                Book book = em.find(Book.class, itemId);
+                if (attempts.incrementAndGet() == 1) {  //  첫 실행: 읽은 뒤 다른 트랜잭션이 같은 상품을 먼저 변경하고 커밋
+                    concurrentTx.executeWithoutResult(s -> em.find(Book.class, itemId).setStockQuantity(5));
+                }
+                book.setPrice(book.getPrice() + 1000);
+            }));
+
+            //then
+            Book book = tx.execute(status -> em.find(Book.class, itemId));
+            Assert.assertEquals("버전 충돌로 실패한 실행은 처음부터 다시 실행해야 한다.", 2, attempts.get());
+            Assert.assertEquals(11000, book.getPrice());
+            Assert.assertEquals("먼저 커밋한 변경을 덮어쓰지 않아야 한다.", 5, book.getStockQuantity());
+            Assert.assertEquals(conflicts + 1, retryExecutor.getStats().getConflicts());
+        } finally {
+            tx.executeWithoutResult(status -> em.remove(em.find(Book.class, itemId)));
+        }
+    }
+
+    @Test
+    public void 대기시간_0이면_바로_재시도() throws Exception {
+        //given
+        OptimisticLockRetryExecutor retryExecutor = new OptimisticLockRetryExecutor(3, 0);
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        String result = retryExecutor.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Order", 1L);
+            }
+            return "ok";
+        });
+
+        //then
+        Assert.assertEquals("ok", result);
+        Assert.assertEquals("충돌한 횟수만큼 다시 실행해야 한다.", 3, calls.get());
+        Assert.assertEquals(2, retryExecutor.getStats().getConflicts());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 대기시간_음수_설정_불가() throws Exception {
+        new OptimisticLockRetryExecutor(3, -1);
+    }
+}
@@ -0,0 +1,123 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 동시 주문 초과 판매 테스트
+ * 스레드마다 별도 트랜잭션이 필요하므로 테스트 트랜잭션(@Transactional)을 쓰지 않고 직접 커밋한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class StockReservationServiceTest {
+
+    private static final int THREADS = 64;
+    private static final int STOCK = 50;
+
+    @Autowired
+    StockReservationService stockReservationService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager em;
+
+    TransactionTemplate tx;
+    Long itemId;
+
+    @Before
+    public void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        itemId = tx.execute(status -> {
+            Book book = new Book();
+            book.setName("시골 JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(STOCK);
+            em.persist(book);
+            return book.getId();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        tx.executeWithoutResult(status -> em.remove(em.find(Book.class, itemId)));
+    }
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        int success = reserveConcurrently(stockReservationService);
+
+        Assert.assertEquals("재고 수량만큼만 주문이 성공해야 한다.", STOCK, success);
+        Assert.assertEquals("재고는 0 미만이 될 수 없다.", 0, stockQuantity());
+    }
+
+    @Test
+    public void 메모리_할당_모드_동시주문_초과판매_없음() throws Exception {
+        StockReservationService allotted = new StockReservationService(itemRepository, transactionManager, 8);
+
+        int success = reserveConcurrently(allotted);
+        allotted.returnAllotments();
+
+        Assert.assertEquals("재고 수량만큼만 주문이 성공해야 한다.", STOCK, success);
+        Assert.assertEquals("재고는 0 미만이 될 수 없다.", 0, stockQuantity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 수량_0_이하_차감_불가() throws Exception {
+        tx.executeWithoutResult(status -> stockReservationService.reserve(itemId, -1));
+    }
+
+    private int reserveConcurrently(StockReservationService service) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        AtomicInteger success = new AtomicInteger();
+
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    tx.executeWithoutResult(status -> service.reserve(itemId, 1));
+                    success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    //  재고 부족
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+        return success.get();
+    }
+
+    private int stockQuantity() {
+        return tx.execute(status -> em.find(Book.class, itemId).getStockQuantity());
+    }
+}
@@ -0,0 +1,150 @@
+package jpabook.jpashop.sqllog;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncSqlLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(AsyncSqlLogger.class);
+    private final CapturingAppender appender = new CapturingAppender();
+    private AsyncSqlLogger sqlLogger;
+
+    @Before
+    public void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        appender.release();
+        if (sqlLogger != null) {
+            sqlLogger.shutdown();
+        }
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    public void 느린_SQL은_파라미터_값까지_항상_남김() throws Exception {
+        //given
+        sqlLogger = start(new AsyncSqlLogger(true, 0.0, 100, 16));    //  샘플링 안함
+
+        //when
+        sqlLogger.onAfterAnyExecute(statement("select * from item where item_id = ?", 1L), millis(1), null);
+        sqlLogger.onAfterAnyExecute(statement("select * from member where member_id = ?", 2L), millis(150), null);
+
+        //then
+        List<String> logs = appender.await(1);
+        Assert.assertEquals("샘플링 비율이 0이면 빠른 SQL은 남기지 않는다.", 1, logs.size());
+        Assert.assertTrue(logs.get(0), logs.get(0).startsWith("[SLOW SQL]"));
+        Assert.assertTrue("느린 SQL은 파라미터 값을 포함한다.", logs.get(0).contains("member_id = 2"));
+    }
+
+    @Test
+    public void 샘플링된_SQL은_파라미터_없이_남김() throws Exception {
+        //given
+        sqlLogger = start(new AsyncSqlLogger(true, 1.0, 100, 16));    //  모두 샘플링
+
+        //when
+        sqlLogger.onAfterAnyExecute(statement("select * from item where item_id = ?", 1L), millis(1), null);
+
+        //then
+        List<String> logs = appender.await(1);
+        Assert.assertTrue(logs.get(0), logs.get(0).startsWith("[SQL 샘플]"));
+        Assert.assertTrue("샘플 로그는 SQL 모양만 남긴다.", logs.get(0).contains("item_id = ?"));
+    }
+
+    @Test
+    public void 버퍼가_가득_차면_버리고_버린_건수를_경고() throws Exception {
+        //given
+        sqlLogger = start(new AsyncSqlLogger(true, 1.0, 100, 2));     //  버퍼 2건
+        appender.block();
+        sqlLogger.onAfterAnyExecute(statement("select 1", null), millis(1), null);
+        appender.awaitBlocked();    //  writer 스레드가 첫번째 로그를 출력하다 멈춘 상태
+
+        //when
+        for (int i = 0; i < 3; i++) {   //  2건은 버퍼에 들어가고 1건은 버려진다.(요청 스레드는 기다리지 않는다)
+            sqlLogger.onAfterAnyExecute(statement("select 2", null), millis(1), null);
+        }
+        appender.release();
+
+        //then
+        List<String> logs = appender.await(4);
+        Assert.assertEquals(3, logs.stream().filter(log -> log.startsWith("[SQL 샘플]")).count());
+        Assert.assertTrue(logs.toString(), logs.contains("SQL 로그 버퍼가 가득 차서 1건을 버렸습니다."));
+    }
+
+    private AsyncSqlLogger start(AsyncSqlLogger sqlLogger) {
+        sqlLogger.start();
+        return sqlLogger;
+    }
+
+    private PreparedStatementInformation statement(String sql, Object parameter) {
+        PreparedStatementInformation statement = new PreparedStatementInformation(ConnectionInformation.fromTestConnection(null), sql);
+        if (parameter != null) {
+            statement.setParameterValue(1, parameter);
+        }
+        return statement;
+    }
+
+    private long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * writer 스레드가 출력한 로그를 모은다.(block() 하면 다음 출력에서 release() 까지 멈춘다)
+     */
+    private static class CapturingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            messages.add(event.getFormattedMessage());
+            if (gate.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (messages.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);   //  기대보다 더 출력되는지 확인
+            return messages;
+        }
+    }
+}